@@ -0,0 +1,50 @@
+package com.sssm;
+
+import com.sssm.data.StockData;
+import com.sssm.domain.Stock;
+import com.sssm.domain.StockType;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without a web server so benchmarks drive the real service beans.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add("--springfox.documentation.enabled=false");
+        if (arguments.stream().noneMatch(argument -> argument.startsWith("--logging.level.root="))) {
+            arguments.add("--logging.level.root=WARN");
+        }
+        return new SpringApplicationBuilder(SuperSimpleStockMarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(arguments.toArray(new String[0]));
+    }
+
+    public static String[] addStocks(ConfigurableApplicationContext context, int count) {
+        StockData stockData = context.getBean(StockData.class);
+        List<Stock> stocks = stockData.getStockTable().getStocks();
+        String[] symbols = new String[count];
+        for (int i = 0; i < count; i++) {
+            Stock stock = new Stock();
+            stock.setSymbol("S" + i);
+            stock.setType(i % 2 == 0 ? StockType.COMMON : StockType.PREFERRED);
+            stock.setLastDividend(8);
+            stock.setFixedDividend(2);
+            stock.setParValue(100);
+            stocks.add(stock);
+            symbols[i] = stock.getSymbol();
+        }
+        stockData.load(stocks);
+        return symbols;
+    }
+}
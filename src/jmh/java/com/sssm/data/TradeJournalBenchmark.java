@@ -0,0 +1,65 @@
+package com.sssm.data;
+
+import com.sssm.clock.TradeClock;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeJournalBenchmark {
+
+    @Param({"OFF", "NEVER", "INTERVAL", "ALWAYS"})
+    public String journal;
+
+    private Path path;
+    private TradeJournal tradeJournal;
+    private TradeWindow tradeWindow;
+    private Trade trade;
+    private long timestampNanos;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        // Trades are a microsecond apart, the one millisecond window keeps the buffer at a steady thousand trades
+        tradeWindow = new TradeWindow("TEA", Duration.ofMillis(1));
+        if (!"OFF".equals(journal)) {
+            path = Files.createTempFile("trades", ".journal");
+            tradeJournal = new TradeJournal(path, TradeJournal.FsyncPolicy.valueOf(journal), 100, 64);
+        }
+        trade = new Trade();
+        trade.setSymbol("TEA");
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(52.2);
+        trade.setQuantity(10);
+        timestampNanos = TradeClock.toEpochNanos(LocalDateTime.now());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (tradeJournal != null) {
+            tradeJournal.close();
+            Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public void ingest() {
+        timestampNanos += 1_000;
+        trade.setTradeTimestampNanos(timestampNanos);
+        if (tradeJournal != null) {
+            tradeJournal.append(trade);
+        }
+        tradeWindow.add(trade);
+    }
+}
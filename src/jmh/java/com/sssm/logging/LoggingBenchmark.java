@@ -0,0 +1,68 @@
+package com.sssm.logging;
+
+import com.sssm.BenchmarkApplication;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import com.sssm.service.TradeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request latency with the default synchronous logging and the production async, sampled logging.
+ * Console output is redirected to a temporary file so the benchmark pays for real log I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"default", "production"})
+    public String profile;
+
+    private PrintStream console;
+    private Path logFile;
+    private ConfigurableApplicationContext context;
+    private TradeService tradeService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        console = System.out;
+        logFile = Files.createTempFile("sssm", ".log");
+        System.setOut(new PrintStream(new FileOutputStream(logFile.toFile()), false));
+        context = BenchmarkApplication.start("--spring.profiles.active=" + profile, "--logging.level.root=INFO");
+        tradeService = context.getBean(TradeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        System.out.close();
+        System.setOut(console);
+        Files.delete(logFile);
+    }
+
+    @Benchmark
+    public Trade recordTrade() {
+        Trade trade = new Trade();
+        trade.setSymbol("TEA");
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(52.2);
+        trade.setQuantity(10);
+        return tradeService.recordTrade(trade);
+    }
+
+    @Benchmark
+    public double calculateVolumeWeightedStockPrice() {
+        return tradeService.calculateVolumeWeightedStockPrice("TEA");
+    }
+}
@@ -0,0 +1,71 @@
+package com.sssm.pipeline;
+
+import com.sssm.BenchmarkApplication;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeReceipt;
+import com.sssm.domain.TradeType;
+import com.sssm.service.TradeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest latency of recording a trade on the caller's thread against submitting it to the pipeline, with the
+ * journal forced on every write so the pipeline's batched journal writes show up in the tail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradePipelineBenchmark {
+
+    @Param({"OFF", "ALWAYS"})
+    public String journal;
+
+    private ConfigurableApplicationContext context;
+    private TradeService tradeService;
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = Files.createTempFile("trades", ".journal");
+        context = BenchmarkApplication.start("--trade.pipeline.enabled=true",
+                "--trade.journal.enabled=" + !"OFF".equals(journal),
+                "--trade.journal.fsync=" + ("OFF".equals(journal) ? "NEVER" : journal),
+                "--trade.journal.path=" + path);
+        tradeService = context.getBean(TradeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.delete(path);
+    }
+
+    private static Trade newTrade() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Trade trade = new Trade();
+        trade.setSymbol("TEA");
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(1 + random.nextInt(10000) / 100.0);
+        trade.setQuantity(1 + random.nextInt(100));
+        return trade;
+    }
+
+    @Benchmark
+    public Trade recordTrade() {
+        return tradeService.recordTrade(newTrade());
+    }
+
+    @Benchmark
+    public TradeReceipt submitTrade() {
+        return tradeService.submitTrade(newTrade());
+    }
+}
@@ -0,0 +1,68 @@
+package com.sssm.service;
+
+import com.sssm.BenchmarkApplication;
+import com.sssm.domain.StockPrices;
+import com.sssm.domain.StockValuation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockServiceBenchmark {
+
+    private static final int PRICES_PER_SYMBOL = 1000;
+
+    @Param({"1", "10", "100"})
+    public int symbolCount;
+
+    private ConfigurableApplicationContext context;
+    private StockService stockService;
+    private String[] symbols;
+    private List<StockPrices> stockPricesList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        stockService = context.getBean(StockService.class);
+        symbols = BenchmarkApplication.addStocks(context, symbolCount);
+        stockPricesList = new ArrayList<>(symbolCount);
+        for (String symbol : symbols) {
+            double[] prices = new double[PRICES_PER_SYMBOL];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = 1 + ThreadLocalRandom.current().nextInt(10000) / 100.0;
+            }
+            stockPricesList.add(new StockPrices(symbol, prices));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public double calculateDividendYield() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return stockService.calculateDividendYield(symbols[random.nextInt(symbolCount)], 1 + random.nextInt(10000) / 100.0);
+    }
+
+    @Benchmark
+    public double calculatePERatio() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return stockService.calculatePERatio(symbols[random.nextInt(symbolCount)], 1 + random.nextInt(10000) / 100.0);
+    }
+
+    @Benchmark
+    public List<StockValuation> calculateValuations() {
+        return stockService.calculateValuations(stockPricesList);
+    }
+}
@@ -0,0 +1,86 @@
+package com.sssm.service;
+
+import com.sssm.BenchmarkApplication;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TradeServiceBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int storeSize;
+
+    @Param({"1", "10", "100"})
+    public int symbolCount;
+
+    private ConfigurableApplicationContext context;
+    private TradeService tradeService;
+    private String[] symbols;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        tradeService = context.getBean(TradeService.class);
+        symbols = BenchmarkApplication.addStocks(context, symbolCount);
+        List<Trade> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < storeSize; i++) {
+            batch.add(newTrade(symbols[i % symbolCount], ThreadLocalRandom.current()));
+            if (batch.size() == BATCH_SIZE || i == storeSize - 1) {
+                tradeService.recordTrades(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Trade recordTrade() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return tradeService.recordTrade(newTrade(symbols[random.nextInt(symbolCount)], random));
+    }
+
+    @Benchmark
+    public double calculateVolumeWeightedStockPrice() {
+        return tradeService.calculateVolumeWeightedStockPrice(symbols[ThreadLocalRandom.current().nextInt(symbolCount)]);
+    }
+
+    @Benchmark
+    public TradePage getTrades() {
+        LocalDateTime from = LocalDateTime.now().minusSeconds(1 + ThreadLocalRandom.current().nextInt(60));
+        return tradeService.getTrades(symbols[ThreadLocalRandom.current().nextInt(symbolCount)], from, from.plusSeconds(1), 0, 100);
+    }
+
+    @Benchmark
+    public double calculateGBCEAllShareIndex() {
+        return tradeService.calculateGBCEAllShareIndex();
+    }
+
+    private static Trade newTrade(String symbol, ThreadLocalRandom random) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(random.nextBoolean() ? TradeType.BUY : TradeType.SELL);
+        trade.setTradePrice(50 + random.nextInt(5000) / 100.0);
+        trade.setQuantity(1 + random.nextInt(1000));
+        return trade;
+    }
+}
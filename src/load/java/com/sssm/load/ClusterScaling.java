@@ -0,0 +1,308 @@
+package com.sssm.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sssm.SuperSimpleStockMarketApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how the cluster mode scales: for every node count a cluster of that many application JVMs is started on
+ * localhost, sharing a generated stock list, and driven by a fixed number of connections that each send their next
+ * request as soon as the previous one is answered. Connections are spread round-robin over the nodes like behind a
+ * load balancer, so requests for symbols owned by another node are forwarded.
+ * <p>
+ * Arguments are key=value pairs: nodes (1,2,4), connections (64), symbols (64), mix as operation:weight pairs of
+ * record, vwsp and gbce (record:70,vwsp:20,gbce:10), warmup and duration in seconds (5 and 20), jvmArgs for every
+ * node separated by ; (-Xmx512m) and out (build/results/load/cluster.json).
+ */
+public final class ClusterScaling {
+
+    private static final String[] OPERATIONS = {"record", "vwsp", "gbce"};
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private ClusterScaling() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("nodes", "1,2,4");
+        options.put("connections", "64");
+        options.put("symbols", "64");
+        options.put("mix", "record:70,vwsp:20,gbce:10");
+        options.put("warmup", "5");
+        options.put("duration", "20");
+        options.put("jvmArgs", "-Xmx512m");
+        options.put("out", "build/results/load/cluster.json");
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        int connections = Integer.parseInt(options.get("connections"));
+        int[] weights = parseMix(options.get("mix"));
+        String[] symbols = new String[Integer.parseInt(options.get("symbols"))];
+        StringBuilder stocks = new StringBuilder("[");
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = String.format(Locale.ROOT, "S%03d", i);
+            stocks.append(i > 0 ? "," : "").append("{\"symbol\":\"").append(symbols[i])
+                    .append("\",\"type\":\"COMMON\",\"lastDividend\":8,\"parValue\":100}");
+        }
+        Path stockData = Files.createTempFile("sssm-cluster-stocks", ".json");
+        Files.writeString(stockData, stocks.append(']'));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        System.out.printf("%-6s %-8s %12s %10s %10s %10s %10s %8s%n",
+                "nodes", "op", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (String nodeCount : options.get("nodes").split(",")) {
+            List<Process> processes = new ArrayList<>();
+            try {
+                List<URI> nodes = startCluster(Integer.parseInt(nodeCount), stockData, options.get("jvmArgs"), processes);
+                Run run = new Run(nodes, symbols, weights, connections);
+                run.run(warmup, duration);
+                results.add(run.report(duration));
+            } finally {
+                for (Process process : processes) {
+                    process.destroy();
+                }
+                for (Process process : processes) {
+                    process.waitFor(30, TimeUnit.SECONDS);
+                }
+            }
+        }
+        Files.delete(stockData);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("connections", connections);
+        report.put("symbols", symbols.length);
+        report.put("mix", options.get("mix"));
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("clusters", results);
+        Path out = Paths.get(options.get("out"));
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPERATIONS.length];
+        for (String entry : mix.split(",")) {
+            String[] operationWeight = entry.split(":", 2);
+            int operation = List.of(OPERATIONS).indexOf(operationWeight[0]);
+            if (operation < 0) {
+                throw new IllegalArgumentException("Unknown operation " + operationWeight[0] + ", expected one of " + List.of(OPERATIONS));
+            }
+            weights[operation] = Integer.parseInt(operationWeight[1]);
+        }
+        return weights;
+    }
+
+    private static List<URI> startCluster(int nodeCount, Path stockData, String jvmArgs, List<Process> processes)
+            throws IOException, InterruptedException {
+        List<URI> nodes = new ArrayList<>(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                nodes.add(URI.create("http://localhost:" + socket.getLocalPort()));
+            }
+        }
+        StringBuilder nodeList = new StringBuilder();
+        for (URI node : nodes) {
+            nodeList.append(nodeList.length() > 0 ? "," : "").append(node);
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            for (String jvmArg : jvmArgs.split(";")) {
+                if (!jvmArg.isEmpty()) {
+                    command.add(jvmArg);
+                }
+            }
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), SuperSimpleStockMarketApplication.class.getName(),
+                    "--server.port=" + nodes.get(node).getPort(), "--stock.data.path=" + stockData,
+                    "--trade.cluster.enabled=true", "--trade.cluster.nodes=" + nodeList, "--trade.cluster.node.index=" + node,
+                    "--logging.level.root=WARN", "--springfox.documentation.enabled=false"));
+            processes.add(new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start());
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        for (int node = 0; node < nodeCount; node++) {
+            HttpRequest health = HttpRequest.newBuilder(nodes.get(node).resolve("/actuator/health")).GET().build();
+            while (true) {
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                if (!processes.get(node).isAlive() || System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Cluster node " + nodes.get(node) + " did not start.");
+                }
+                Thread.sleep(200);
+            }
+        }
+        return nodes;
+    }
+
+    private static final class Run {
+
+        private final List<URI> nodes;
+        private final String[] symbols;
+        private final int[] weights;
+        private final int totalWeight;
+        private final int connections;
+        private final Recorder[] recorders = new Recorder[OPERATIONS.length];
+        private final AtomicLong[] errors = new AtomicLong[OPERATIONS.length];
+        private final Histogram[] histograms = new Histogram[OPERATIONS.length];
+
+        private Run(List<URI> nodes, String[] symbols, int[] weights, int connections) {
+            this.nodes = nodes;
+            this.symbols = symbols;
+            this.weights = weights;
+            int weightSum = 0;
+            for (int weight : weights) {
+                weightSum += weight;
+            }
+            this.totalWeight = weightSum;
+            this.connections = connections;
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                recorders[i] = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+                errors[i] = new AtomicLong();
+            }
+        }
+
+        private void run(Duration warmup, Duration duration) {
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            long measureFrom = System.nanoTime() + warmup.toNanos();
+            long measureUntil = measureFrom + duration.toNanos();
+            CompletableFuture<?>[] done = new CompletableFuture<?>[connections];
+            for (int i = 0; i < connections; i++) {
+                CompletableFuture<Void> connectionDone = new CompletableFuture<>();
+                send(client, nodes.get(i % nodes.size()), measureFrom, measureUntil, connectionDone);
+                done[i] = connectionDone;
+            }
+            CompletableFuture.allOf(done).exceptionally(e -> null).join();
+            clientExecutor.shutdownNow();
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                histograms[i] = recorders[i].getIntervalHistogram();
+            }
+        }
+
+        private void send(HttpClient client, URI node, long measureFrom, long measureUntil, CompletableFuture<Void> done) {
+            long sent = System.nanoTime();
+            if (sent >= measureUntil) {
+                done.complete(null);
+                return;
+            }
+            int operation = pick();
+            client.sendAsync(request(node, operation), HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long received = System.nanoTime();
+                if (sent >= measureFrom && received < measureUntil) {
+                    if (failure != null || response.statusCode() != 200) {
+                        errors[operation].incrementAndGet();
+                    } else {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(received - sent);
+                        recorders[operation].recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+                    }
+                }
+                send(client, node, measureFrom, measureUntil, done);
+            });
+        }
+
+        private int pick() {
+            int value = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (int operation = 0; operation < weights.length; operation++) {
+                value -= weights[operation];
+                if (value < 0) {
+                    return operation;
+                }
+            }
+            return weights.length - 1;
+        }
+
+        private HttpRequest request(URI node, int operation) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String symbol = symbols[random.nextInt(symbols.length)];
+            switch (OPERATIONS[operation]) {
+                case "record":
+                    String trade = String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"type\":\"%s\",\"tradePrice\":%.2f,\"quantity\":%d}",
+                            symbol, random.nextBoolean() ? "BUY" : "SELL", 50 + random.nextInt(10_000) / 100.0, 1 + random.nextInt(1000));
+                    return HttpRequest.newBuilder(node.resolve("/trade/record"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(trade))
+                            .build();
+                case "vwsp":
+                    return HttpRequest.newBuilder(node.resolve("/trade/volume-weighted-stock-price/" + symbol)).GET().build();
+                default:
+                    return HttpRequest.newBuilder(node.resolve("/trade/gbce")).GET().build();
+            }
+        }
+
+        private Map<String, Object> report(Duration duration) {
+            Map<String, Object> operations = new LinkedHashMap<>();
+            Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+            long totalErrors = 0;
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                if (weights[i] == 0) {
+                    continue;
+                }
+                total.add(histograms[i]);
+                totalErrors += errors[i].get();
+                operations.put(OPERATIONS[i], summarise(OPERATIONS[i], histograms[i], errors[i].get(), duration));
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("nodes", nodes.size());
+            result.put("total", summarise("total", total, totalErrors, duration));
+            result.put("operations", operations);
+            return result;
+        }
+
+        private Map<String, Object> summarise(String operation, Histogram histogram, long errorCount, Duration duration) {
+            double throughput = histogram.getTotalCount() / (double) duration.toSeconds();
+            Map<String, Object> latencies = new LinkedHashMap<>();
+            latencies.put("p50", histogram.getValueAtPercentile(50));
+            latencies.put("p99", histogram.getValueAtPercentile(99));
+            latencies.put("p99.9", histogram.getValueAtPercentile(99.9));
+            latencies.put("max", histogram.getMaxValue());
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", histogram.getTotalCount());
+            summary.put("throughput", throughput);
+            summary.put("errors", errorCount);
+            summary.put("latencyMicros", latencies);
+            System.out.printf("%-6d %-8s %12.0f %10.2f %10.2f %10.2f %10.2f %8d%n", nodes.size(), operation, throughput,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0, errorCount);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.sssm.load;
+
+import com.sssm.SuperSimpleStockMarketApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the REST execution modes by holding an increasing number of connections open against a local instance,
+ * each connection sending its next request as soon as the previous one is answered, and reporting throughput and
+ * latency percentiles per mode and connection count.
+ * <p>
+ * Arguments are key=value pairs: modes (platform,virtual), connections (100,1000,2000), warmup and duration in
+ * seconds (2 and 10) and path (/trade/volume-weighted-stock-price/TEA). The virtual mode needs a Java 21 runtime.
+ */
+public final class ConnectionScaling {
+
+    private ConnectionScaling() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("modes", "platform,virtual");
+        options.put("connections", "100,1000,2000");
+        options.put("warmup", "2");
+        options.put("duration", "10");
+        options.put("path", "/trade/volume-weighted-stock-price/TEA");
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+
+        System.out.printf("%-10s %12s %12s %10s %10s %10s %10s %8s%n",
+                "mode", "connections", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (String mode : options.get("modes").split(",")) {
+            ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(SuperSimpleStockMarketApplication.class)
+                    .bannerMode(Banner.Mode.OFF)
+                    .logStartupInfo(false)
+                    .run("--server.port=0", "--rest.execution.mode=" + mode, "--logging.level.root=WARN",
+                            "--springfox.documentation.enabled=false", "--server.tomcat.max-connections=20000",
+                            "--server.tomcat.accept-count=20000");
+            try {
+                URI uri = URI.create("http://localhost:" + context.getWebServer().getPort() + options.get("path"));
+                for (String connections : options.get("connections").split(",")) {
+                    Result result = run(uri, Integer.parseInt(connections), warmup, duration);
+                    System.out.printf("%-10s %12s %12.0f %10.2f %10.2f %10.2f %10.2f %8d%n", mode, connections,
+                            result.requests / (double) duration.toSeconds(), result.percentile(0.5),
+                            result.percentile(0.99), result.percentile(0.999), result.percentile(1.0), result.errors);
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static Result run(URI uri, int connections, Duration warmup, Duration duration) {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        Connection[] connectionList = new Connection[connections];
+        CompletableFuture<?>[] done = new CompletableFuture<?>[connections];
+        AtomicLong errors = new AtomicLong();
+        for (int i = 0; i < connections; i++) {
+            connectionList[i] = new Connection(client, request, measureFrom, measureUntil, errors);
+            done[i] = connectionList[i].next();
+        }
+        CompletableFuture.allOf(done).exceptionally(e -> null).join();
+        clientExecutor.shutdownNow();
+
+        int count = 0;
+        for (Connection connection : connectionList) {
+            count += connection.count;
+        }
+        long[] latencies = new long[count];
+        int offset = 0;
+        for (Connection connection : connectionList) {
+            System.arraycopy(connection.latencies, 0, latencies, offset, connection.count);
+            offset += connection.count;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, errors.get());
+    }
+
+    private static class Connection {
+
+        private final HttpClient client;
+        private final HttpRequest request;
+        private final long measureFrom;
+        private final long measureUntil;
+        private final AtomicLong errors;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long[] latencies = new long[1024];
+        private int count;
+
+        private Connection(HttpClient client, HttpRequest request, long measureFrom, long measureUntil, AtomicLong errors) {
+            this.client = client;
+            this.request = request;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            this.errors = errors;
+        }
+
+        private CompletableFuture<Void> next() {
+            send();
+            return done;
+        }
+
+        private void send() {
+            long sent = System.nanoTime();
+            if (sent >= measureUntil) {
+                done.complete(null);
+                return;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long received = System.nanoTime();
+                if (sent >= measureFrom && received < measureUntil) {
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    } else {
+                        record(received - sent);
+                    }
+                }
+                send();
+            });
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count << 1);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    private static class Result {
+
+        private final long[] latencies;
+        private final long requests;
+        private final long errors;
+
+        private Result(long[] latencies, long errors) {
+            this.latencies = latencies;
+            this.requests = latencies.length;
+            this.errors = errors;
+        }
+
+        private double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
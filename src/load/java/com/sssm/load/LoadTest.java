@@ -0,0 +1,305 @@
+package com.sssm.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sssm.SuperSimpleStockMarketApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open model load test: requests are sent at a fixed arrival rate whatever the response times, picked from a
+ * weighted mix of operations, and each latency is measured from the time the request was due to be sent, so a
+ * server that falls behind shows up in the percentiles instead of slowing the load down. Every rate step runs
+ * for its own warmup and measurement period, so a list of rates shows where the tail latency breaks down.
+ * <p>
+ * Arguments are key=value pairs: rates in requests per second (1000,2000,4000), mix as operation:weight pairs
+ * (record:40,vwsp:30,gbce:10,dividend:10,pe:10), symbols (TEA,POP,ALE,GIN,JOE), warmup and duration in seconds
+ * (5 and 30), maxInFlight (10000) and out (build/results/load/results.json). Without url=http://host:port a local
+ * instance is started in-process; extra application arguments are passed with app=--key=value;--key=value.
+ */
+public final class LoadTest {
+
+    private static final String[] OPERATIONS = {"record", "vwsp", "gbce", "dividend", "pe"};
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("rates", "1000,2000,4000");
+        options.put("mix", "record:40,vwsp:30,gbce:10,dividend:10,pe:10");
+        options.put("symbols", "TEA,POP,ALE,GIN,JOE");
+        options.put("warmup", "5");
+        options.put("duration", "30");
+        options.put("maxInFlight", "10000");
+        options.put("out", "build/results/load/results.json");
+        options.put("app", "");
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        int[] weights = parseMix(options.get("mix"));
+        String[] symbols = options.get("symbols").split(",");
+        int maxInFlight = Integer.parseInt(options.get("maxInFlight"));
+
+        ServletWebServerApplicationContext context = null;
+        String url = options.get("url");
+        if (url == null) {
+            List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN",
+                    "--springfox.documentation.enabled=false", "--server.tomcat.max-connections=20000",
+                    "--server.tomcat.accept-count=20000"));
+            for (String appArg : options.get("app").split(";")) {
+                if (!appArg.isEmpty()) {
+                    appArgs.add(appArg);
+                }
+            }
+            context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(SuperSimpleStockMarketApplication.class)
+                    .bannerMode(Banner.Mode.OFF)
+                    .logStartupInfo(false)
+                    .run(appArgs.toArray(new String[0]));
+            url = "http://localhost:" + context.getWebServer().getPort();
+        }
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        List<Map<String, Object>> steps = new ArrayList<>();
+        try {
+            Requests requests = new Requests(URI.create(url), symbols);
+            System.out.printf("%-10s %10s %12s %10s %10s %10s %10s %10s %8s%n",
+                    "operation", "rate", "requests/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+            for (String rate : options.get("rates").split(",")) {
+                Step step = new Step(client, requests, weights, Integer.parseInt(rate), maxInFlight);
+                step.run(warmup, duration);
+                steps.add(step.report(duration));
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("url", url);
+        results.put("mix", options.get("mix"));
+        results.put("warmupSeconds", warmup.toSeconds());
+        results.put("durationSeconds", duration.toSeconds());
+        results.put("steps", steps);
+        Path out = Paths.get(options.get("out"));
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), results);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPERATIONS.length];
+        for (String entry : mix.split(",")) {
+            String[] operationWeight = entry.split(":", 2);
+            int operation = List.of(OPERATIONS).indexOf(operationWeight[0]);
+            if (operation < 0) {
+                throw new IllegalArgumentException("Unknown operation " + operationWeight[0] + ", expected one of " + List.of(OPERATIONS));
+            }
+            weights[operation] = Integer.parseInt(operationWeight[1]);
+        }
+        return weights;
+    }
+
+    private static final class Requests {
+
+        private final URI base;
+        private final String[] symbols;
+
+        private Requests(URI base, String[] symbols) {
+            this.base = base;
+            this.symbols = symbols;
+        }
+
+        private HttpRequest create(int operation, Random random) {
+            String symbol = symbols[random.nextInt(symbols.length)];
+            double price = 50 + random.nextInt(10_000) / 100.0;
+            switch (OPERATIONS[operation]) {
+                case "record":
+                    String trade = String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"type\":\"%s\",\"tradePrice\":%.2f,\"quantity\":%d}",
+                            symbol, random.nextBoolean() ? "BUY" : "SELL", price, 1 + random.nextInt(1000));
+                    return HttpRequest.newBuilder(base.resolve("/trade/record"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(trade))
+                            .build();
+                case "vwsp":
+                    return HttpRequest.newBuilder(base.resolve("/trade/volume-weighted-stock-price/" + symbol)).GET().build();
+                case "gbce":
+                    return HttpRequest.newBuilder(base.resolve("/trade/gbce")).GET().build();
+                case "dividend":
+                    return HttpRequest.newBuilder(base.resolve("/stock/dividend-yield/" + symbol + "/" + price)).GET().build();
+                default:
+                    return HttpRequest.newBuilder(base.resolve("/stock/pe-ratio/" + symbol + "/" + price)).GET().build();
+            }
+        }
+    }
+
+    private static final class Step {
+
+        private final HttpClient client;
+        private final Requests requests;
+        private final int[] weights;
+        private final int totalWeight;
+        private final int rate;
+        private final int maxInFlight;
+        private final Semaphore inFlight;
+        private final Recorder[] recorders = new Recorder[OPERATIONS.length];
+        private final AtomicLong[] errors = new AtomicLong[OPERATIONS.length];
+        private final Histogram[] histograms = new Histogram[OPERATIONS.length];
+        private final AtomicLong dropped = new AtomicLong();
+
+        private Step(HttpClient client, Requests requests, int[] weights, int rate, int maxInFlight) {
+            this.client = client;
+            this.requests = requests;
+            this.weights = weights;
+            int weightSum = 0;
+            for (int weight : weights) {
+                weightSum += weight;
+            }
+            this.totalWeight = weightSum;
+            this.rate = rate;
+            this.maxInFlight = maxInFlight;
+            this.inFlight = new Semaphore(maxInFlight);
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                recorders[i] = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+                errors[i] = new AtomicLong();
+            }
+        }
+
+        private void run(Duration warmup, Duration duration) {
+            Random random = new Random(rate);
+            long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long measureUntil = measureFrom + duration.toNanos();
+            for (long sent = 0; ; sent++) {
+                long intended = start + sent * periodNanos;
+                if (intended >= measureUntil) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = intended >= measureFrom;
+                int operation = pick(random);
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        dropped.incrementAndGet();
+                        errors[operation].incrementAndGet();
+                    }
+                    continue;
+                }
+                client.sendAsync(requests.create(operation, random), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            inFlight.release();
+                            if (!measured) {
+                                return;
+                            }
+                            if (failure != null || response.statusCode() != 200) {
+                                errors[operation].incrementAndGet();
+                            } else {
+                                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                                recorders[operation].recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+                            }
+                        });
+            }
+            long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (inFlight.availablePermits() < maxInFlight && System.nanoTime() < drainUntil) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                histograms[i] = recorders[i].getIntervalHistogram();
+            }
+        }
+
+        private int pick(Random random) {
+            int value = random.nextInt(totalWeight);
+            for (int operation = 0; operation < weights.length; operation++) {
+                value -= weights[operation];
+                if (value < 0) {
+                    return operation;
+                }
+            }
+            return weights.length - 1;
+        }
+
+        private Map<String, Object> report(Duration duration) {
+            Map<String, Object> operations = new LinkedHashMap<>();
+            Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+            long totalErrors = 0;
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                if (weights[i] == 0) {
+                    continue;
+                }
+                total.add(histograms[i]);
+                totalErrors += errors[i].get();
+                operations.put(OPERATIONS[i], summarise(OPERATIONS[i], histograms[i], errors[i].get(), duration));
+            }
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("targetRate", rate);
+            step.put("dropped", dropped.get());
+            step.put("total", summarise("total", total, totalErrors, duration));
+            step.put("operations", operations);
+            return step;
+        }
+
+        private Map<String, Object> summarise(String operation, Histogram histogram, long errorCount, Duration duration) {
+            double throughput = histogram.getTotalCount() / (double) duration.toSeconds();
+            Map<String, Object> latencies = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                String key = percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+                latencies.put("p" + key, histogram.getValueAtPercentile(percentile));
+            }
+            latencies.put("max", histogram.getMaxValue());
+            latencies.put("mean", histogram.getMean());
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", histogram.getTotalCount());
+            summary.put("throughput", throughput);
+            summary.put("errors", errorCount);
+            summary.put("latencyMicros", latencies);
+            System.out.printf("%-10s %10d %12.0f %10.2f %10.2f %10.2f %10.2f %10.2f %8d%n", operation, rate, throughput,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0, errorCount);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.sssm.clock;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Caches the time of a {@link SystemTradeClock} in a volatile field refreshed by a background thread, so a read is
+ * a single memory load. Timestamps are only as precise as the refresh period, trades stored within one period
+ * share a timestamp.
+ */
+public class CoarseTradeClock implements TradeClock, Closeable {
+
+    private final SystemTradeClock systemClock = new SystemTradeClock();
+    private final Thread ticker;
+    private volatile long epochNanos;
+    private volatile boolean running = true;
+
+    public CoarseTradeClock(long resolutionMicros) {
+        this.epochNanos = systemClock.epochNanos();
+        long resolutionNanos = TimeUnit.MICROSECONDS.toNanos(resolutionMicros);
+        this.ticker = new Thread(() -> {
+            while (running) {
+                LockSupport.parkNanos(resolutionNanos);
+                epochNanos = systemClock.epochNanos();
+            }
+        }, "coarse-trade-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public long epochNanos() {
+        return epochNanos;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+}
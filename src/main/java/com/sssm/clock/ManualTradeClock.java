@@ -0,0 +1,33 @@
+package com.sssm.clock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Clock that only moves when told to, for deterministic tests.
+ */
+public class ManualTradeClock implements TradeClock {
+
+    private volatile long epochNanos;
+
+    public ManualTradeClock(LocalDateTime now) {
+        set(now);
+    }
+
+    @Override
+    public long epochNanos() {
+        return epochNanos;
+    }
+
+    public LocalDateTime now() {
+        return TradeClock.toLocalDateTime(epochNanos);
+    }
+
+    public synchronized void set(LocalDateTime now) {
+        this.epochNanos = TradeClock.toEpochNanos(now);
+    }
+
+    public synchronized void advance(Duration duration) {
+        this.epochNanos += duration.toNanos();
+    }
+}
@@ -0,0 +1,24 @@
+package com.sssm.clock;
+
+import java.time.Instant;
+
+/**
+ * Wall clock time anchored once at construction and advanced with {@link System#nanoTime()}, so timestamps never
+ * go backwards when the system clock is adjusted and reading the clock does not allocate.
+ */
+public class SystemTradeClock implements TradeClock {
+
+    private final long anchorEpochNanos;
+    private final long anchorNanoTime;
+
+    public SystemTradeClock() {
+        Instant now = Instant.now();
+        this.anchorNanoTime = System.nanoTime();
+        this.anchorEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    @Override
+    public long epochNanos() {
+        return anchorEpochNanos + (System.nanoTime() - anchorNanoTime);
+    }
+}
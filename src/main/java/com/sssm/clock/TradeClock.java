@@ -0,0 +1,23 @@
+package com.sssm.clock;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Source of trade timestamps as epoch nanos. Trades are stamped and windows are evaluated with plain longs, the
+ * time zone only comes in when a timestamp is converted to or from a {@link LocalDateTime} at the API edge.
+ */
+public interface TradeClock {
+
+    long epochNanos();
+
+    static long toEpochNanos(LocalDateTime timestamp) {
+        Instant instant = timestamp.atZone(ZoneId.systemDefault()).toInstant();
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneId.systemDefault());
+    }
+}
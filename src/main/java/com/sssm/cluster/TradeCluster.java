@@ -0,0 +1,310 @@
+package com.sssm.cluster;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sssm.domain.Bar;
+import com.sssm.domain.LeaderboardEntry;
+import com.sssm.domain.LogPriceSum;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeReceipt;
+import com.sssm.domain.TradeResult;
+import com.sssm.exception.InvalidDataException;
+import com.sssm.exception.NoDataException;
+import com.sssm.exception.NodeUnavailableException;
+import com.sssm.exception.PipelineDisabledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Symbol partitioning across the nodes of a cluster. Every node is configured with the same ordered list of node
+ * URLs and its own index in it, and a symbol is owned by the node at its mixed hash code modulo the number of nodes.
+ * Requests for symbols owned by another node are forwarded to it over HTTP, answers with a 400 or 404 status are
+ * turned back into the {@link InvalidDataException} or {@link NoDataException} the owner threw, and a node that
+ * can not be reached into a {@link NodeUnavailableException}.
+ * Forwarded requests carry the {@link #FORWARDED_HEADER} and are always handled by the node receiving them, so
+ * nodes that disagree about the node list or their index log a warning instead of passing a request back and forth.
+ */
+public class TradeCluster {
+
+    public static final String FORWARDED_HEADER = "X-Sssm-Forwarded-By";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TradeCluster.class);
+
+    private static final TypeReference<List<TradeResult>> TRADE_RESULT_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<String, Double>> VOLUME_WEIGHTED_STOCK_PRICES = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Bar>> BAR_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<LeaderboardEntry>> LEADERBOARD_ENTRY_LIST = new TypeReference<>() {
+    };
+
+    private final List<URI> nodes;
+    private final int nodeIndex;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final ThreadLocal<Boolean> forwarded = new ThreadLocal<>();
+
+    public TradeCluster(List<URI> nodes, int nodeIndex, Duration timeout, ObjectMapper objectMapper) {
+        if (nodeIndex < 0 || nodeIndex >= nodes.size())
+            throw new IllegalArgumentException("Node index " + nodeIndex + " is not in the " + nodes.size() + " cluster nodes.");
+        this.nodes = List.copyOf(nodes);
+        this.nodeIndex = nodeIndex;
+        this.timeout = timeout;
+        // Trade timestamps are read only for clients, but the owner's answer carries the recorded timestamp
+        this.objectMapper = objectMapper.copy().addMixIn(Trade.class, RecordedTrade.class);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    public int getNodeIndex() {
+        return nodeIndex;
+    }
+
+    /**
+     * The index of the node owning the symbol, an empty symbol is left to the local node to reject.
+     */
+    public int getOwner(String symbol) {
+        if (symbol == null || symbol.isEmpty()) {
+            return nodeIndex;
+        }
+        // The murmur3 finalizer, the hash codes of short symbols hardly differ in their low bits
+        int hash = symbol.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, nodes.size());
+    }
+
+    /**
+     * Whether this node handles the symbol, which it does for every symbol of a forwarded request.
+     */
+    public boolean isLocal(String symbol) {
+        int owner = getOwner(symbol);
+        if (owner != nodeIndex && isForwarded()) {
+            LOGGER.warn("Handling a forwarded request for stock: {} owned by cluster node {}, check that all nodes have "
+                    + "the same trade.cluster.nodes and their own trade.cluster.node.index.", symbol, owner);
+            return true;
+        }
+        return owner == nodeIndex;
+    }
+
+    /**
+     * Whether the request handled by the current thread was forwarded by another node.
+     */
+    public boolean isForwarded() {
+        return forwarded.get() != null;
+    }
+
+    public void setForwarded(boolean forwardedRequest) {
+        if (forwardedRequest) {
+            forwarded.set(Boolean.TRUE);
+        } else {
+            forwarded.remove();
+        }
+    }
+
+    public Trade recordTrade(Trade tradeRequest) {
+        return join(post(getOwner(tradeRequest.getSymbol()), "/trade/record", tradeRequest, Trade.class));
+    }
+
+    public TradeReceipt submitTrade(Trade tradeRequest) {
+        return join(post(getOwner(tradeRequest.getSymbol()), "/trade/submit", tradeRequest, TradeReceipt.class));
+    }
+
+    public CompletableFuture<List<TradeResult>> recordTrades(int node, List<Trade> tradeRequests) {
+        return send(node, request(node, "/trade/record-batch")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(tradeRequests)))
+                        .build(),
+                body -> objectMapper.readValue(body, TRADE_RESULT_LIST));
+    }
+
+    public double calculateVolumeWeightedStockPrice(String symbol) {
+        return join(requestVolumeWeightedStockPrice(symbol));
+    }
+
+    public CompletableFuture<Double> requestVolumeWeightedStockPrice(String symbol) {
+        int owner = getOwner(symbol);
+        return send(owner, request(owner, "/trade/volume-weighted-stock-price/" + encode(symbol)).GET().build(),
+                body -> objectMapper.readValue(body, Double.class));
+    }
+
+    /**
+     * The VWSP of several stocks owned by the node, in one request.
+     */
+    public CompletableFuture<Map<String, Double>> requestVolumeWeightedStockPrices(int node, Collection<String> symbols) {
+        return send(node, request(node, "/trade/volume-weighted-stock-prices")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(symbols)))
+                        .build(),
+                body -> objectMapper.readValue(body, VOLUME_WEIGHTED_STOCK_PRICES));
+    }
+
+    /**
+     * The GBCE All Share Index of the whole cluster, adding the log price sums of the other nodes, requested in
+     * parallel, to the one of this node.
+     */
+    public double calculateGBCEAllShareIndex(LogPriceSum localLogPriceSum) {
+        LogPriceSum logPriceSum = localLogPriceSum;
+        for (LogPriceSum nodeLogPriceSum : gather("/trade/gbce/log-price-sum", body -> objectMapper.readValue(body, LogPriceSum.class))) {
+            logPriceSum = logPriceSum.add(nodeLogPriceSum);
+        }
+        return logPriceSum.getGeometricMean();
+    }
+
+    public TradePage getTrades(String symbol, LocalDateTime from, LocalDateTime to, int offset, int limit) {
+        int owner = getOwner(symbol);
+        StringBuilder path = new StringBuilder("/trade/trades/").append(encode(symbol))
+                .append("?offset=").append(offset).append("&limit=").append(limit);
+        if (from != null) path.append("&from=").append(encode(from.toString()));
+        if (to != null) path.append("&to=").append(encode(to.toString()));
+        return join(send(owner, request(owner, path.toString()).GET().build(),
+                body -> objectMapper.readValue(body, TradePage.class)));
+    }
+
+    public List<Bar> getBars(String symbol, String resolution, int count) {
+        int owner = getOwner(symbol);
+        String path = "/trade/bars/" + encode(symbol) + "?resolution=" + encode(resolution) + "&count=" + count;
+        return join(send(owner, request(owner, path).GET().build(), body -> objectMapper.readValue(body, BAR_LIST)));
+    }
+
+    /**
+     * The top stocks of every other node, requested in parallel. Nodes own disjoint stocks, so the top count of
+     * the cluster is among the top count of its nodes.
+     */
+    public List<List<LeaderboardEntry>> gatherTopSymbols(String metric, int count) {
+        return gather("/trade/top?metric=" + encode(metric) + "&count=" + count,
+                body -> objectMapper.readValue(body, LEADERBOARD_ENTRY_LIST));
+    }
+
+    private <T> List<T> gather(String path, ResponseReader<T> reader) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(nodes.size() - 1);
+        for (int node = 0; node < nodes.size(); node++) {
+            if (node != nodeIndex) {
+                futures.add(send(node, request(node, path).GET().build(), reader));
+            }
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    /**
+     * Waits for a forwarded request, rethrowing the exception it failed with.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) throw (RuntimeException) exception.getCause();
+            throw exception;
+        }
+    }
+
+    private <T> CompletableFuture<T> post(int node, String path, Object body, Class<T> type) {
+        return send(node, request(node, path)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(body)))
+                        .build(),
+                responseBody -> objectMapper.readValue(responseBody, type));
+    }
+
+    private HttpRequest.Builder request(int node, String path) {
+        return HttpRequest.newBuilder(nodes.get(node).resolve(path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header(FORWARDED_HEADER, Integer.toString(nodeIndex));
+    }
+
+    private <T> CompletableFuture<T> send(int node, HttpRequest request, ResponseReader<T> reader) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null)
+                        throw new NodeUnavailableException("Cluster node " + nodes.get(node) + " is unavailable.", failure);
+                    try {
+                        switch (response.statusCode()) {
+                            case 200:
+                                return reader.read(response.body());
+                            case 400:
+                                throw new InvalidDataException(errorMessage(response.body()));
+                            case 404:
+                                throw new NoDataException(errorMessage(response.body()));
+                            case 501:
+                                throw new PipelineDisabledException(errorMessage(response.body()));
+                            case 503:
+                                throw new NodeUnavailableException(errorMessage(response.body()), null);
+                            default:
+                                throw new IllegalStateException("Cluster node " + nodes.get(node) + " answered "
+                                        + request.uri().getPath() + " with status " + response.statusCode() + ".");
+                        }
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private String errorMessage(byte[] body) {
+        try {
+            JsonNode message = objectMapper.readTree(body).get("message");
+            return message != null ? message.asText() : null;
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private interface ResponseReader<T> {
+
+        T read(byte[] body) throws IOException;
+    }
+
+    private abstract static class RecordedTrade {
+
+        @JsonProperty(access = JsonProperty.Access.READ_WRITE)
+        abstract LocalDateTime getTradeTimestamp();
+    }
+}
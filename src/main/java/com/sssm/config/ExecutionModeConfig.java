@@ -0,0 +1,43 @@
+package com.sssm.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every HTTP request on its own virtual thread when rest.execution.mode=virtual, so the number of in-flight
+ * requests is no longer capped by the Tomcat worker pool. Virtual threads need a Java 21 runtime, the executor is
+ * looked up reflectively so the application still builds and runs on older JDKs in the default platform mode.
+ */
+@Configuration
+@ConditionalOnProperty(value = "rest.execution.mode", havingValue = "virtual")
+public class ExecutionModeConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        LOGGER.info("Handling HTTP requests on virtual threads.");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("rest.execution.mode=virtual needs Java 21 or later, running on Java "
+                    + System.getProperty("java.version") + ".", e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor.", e);
+        }
+    }
+}
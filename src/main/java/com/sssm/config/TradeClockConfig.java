@@ -0,0 +1,27 @@
+package com.sssm.config;
+
+import com.sssm.clock.CoarseTradeClock;
+import com.sssm.clock.SystemTradeClock;
+import com.sssm.clock.TradeClock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TradeClockConfig {
+
+    public enum ClockSource {
+        SYSTEM, COARSE
+    }
+
+    @Value("${trade.clock}")
+    private ClockSource clockSource;
+
+    @Value("${trade.clock.coarse.resolution.us}")
+    private long coarseResolutionMicros;
+
+    @Bean
+    public TradeClock tradeClock() {
+        return clockSource == ClockSource.COARSE ? new CoarseTradeClock(coarseResolutionMicros) : new SystemTradeClock();
+    }
+}
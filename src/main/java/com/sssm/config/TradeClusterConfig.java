@@ -0,0 +1,57 @@
+package com.sssm.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sssm.cluster.TradeCluster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(value = "trade.cluster.enabled", havingValue = "true")
+public class TradeClusterConfig {
+
+    @Value("${trade.cluster.nodes}")
+    private String[] nodes;
+
+    @Value("${trade.cluster.node.index}")
+    private int nodeIndex;
+
+    @Value("${trade.cluster.timeout.ms}")
+    private long timeoutMillis;
+
+    @Bean
+    public TradeCluster tradeCluster(ObjectMapper objectMapper) {
+        List<URI> nodeUris = new ArrayList<>(nodes.length);
+        for (String node : nodes) {
+            nodeUris.add(URI.create(node.trim()));
+        }
+        return new TradeCluster(nodeUris, nodeIndex, Duration.ofMillis(timeoutMillis), objectMapper);
+    }
+
+    /**
+     * Marks the requests forwarded by other nodes, so they are handled here rather than forwarded again.
+     */
+    @Bean
+    public Filter forwardedRequestFilter(TradeCluster tradeCluster) {
+        return (request, response, chain) -> {
+            if (((HttpServletRequest) request).getHeader(TradeCluster.FORWARDED_HEADER) == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            tradeCluster.setForwarded(true);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                tradeCluster.setForwarded(false);
+            }
+        };
+    }
+}
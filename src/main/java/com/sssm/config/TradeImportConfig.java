@@ -0,0 +1,62 @@
+package com.sssm.config;
+
+import com.sssm.cluster.TradeCluster;
+import com.sssm.data.TradeJournal;
+import com.sssm.ingest.TradeFileImporter;
+import com.sssm.ingest.TradeImportResult;
+import com.sssm.metrics.TradeMetrics;
+import com.sssm.repository.StockRepository;
+import com.sssm.repository.TradeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnProperty(value = "trade.import.enabled", havingValue = "true")
+public class TradeImportConfig {
+
+    @Value("${trade.import.path}")
+    private String path;
+
+    @Value("${trade.import.threads}")
+    private int threads;
+
+    @Value("${trade.import.chunk.size.mb}")
+    private int chunkSizeMb;
+
+    @Value("${trade.journal.path}")
+    private String journalPath;
+
+    @Autowired(required = false)
+    private TradeCluster tradeCluster;
+
+    @Autowired(required = false)
+    private TradeJournal tradeJournal;
+
+    @Bean
+    public TradeFileImporter tradeFileImporter(TradeRepository tradeRepository, StockRepository stockRepository,
+                                               TradeMetrics tradeMetrics) {
+        return new TradeFileImporter(tradeRepository, stockRepository, tradeMetrics,
+                tradeCluster != null ? tradeCluster::isLocal : symbol -> true, threads, chunkSizeMb * 1024 * 1024);
+    }
+
+    /**
+     * Imports the file while the context is created, so before the web server is started and before the trade
+     * ingestion socket, which waits for this bean, is opened: a live trade would make every older trade of its
+     * stock out of order.
+     */
+    @Bean
+    public TradeImportResult tradeImport(TradeFileImporter tradeFileImporter) throws IOException {
+        // Journaled trades are replayed on restart, so the file must not be imported into the journal again
+        if (tradeJournal != null) {
+            TradeImportResult result = tradeFileImporter.importFileOnce(Paths.get(path), Paths.get(journalPath + ".imported"));
+            return result != null ? result : new TradeImportResult(0, 0, 0, 0);
+        }
+        return tradeFileImporter.importFile(Paths.get(path));
+    }
+}
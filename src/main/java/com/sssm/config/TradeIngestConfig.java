@@ -0,0 +1,35 @@
+package com.sssm.config;
+
+import com.sssm.ingest.TradeImportResult;
+import com.sssm.ingest.TradeIngestServer;
+import com.sssm.service.TradeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+@ConditionalOnProperty(value = "trade.ingest.socket.enabled", havingValue = "true")
+public class TradeIngestConfig {
+
+    @Value("${trade.ingest.socket.port}")
+    private int port;
+
+    @Value("${trade.ingest.socket.workers}")
+    private int workers;
+
+    @Value("${trade.ingest.socket.max.frame.bytes}")
+    private int maxFrameBytes;
+
+    // Trades are only taken once the bulk import, when enabled, is done
+    @Autowired(required = false)
+    private TradeImportResult tradeImport;
+
+    @Bean
+    public TradeIngestServer tradeIngestServer(TradeService tradeService) throws IOException {
+        return new TradeIngestServer(tradeService, port, workers, maxFrameBytes);
+    }
+}
@@ -0,0 +1,32 @@
+package com.sssm.config;
+
+import com.sssm.data.TradeJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnProperty(value = "trade.journal.enabled", havingValue = "true")
+public class TradeJournalConfig {
+
+    @Value("${trade.journal.path}")
+    private String path;
+
+    @Value("${trade.journal.fsync}")
+    private TradeJournal.FsyncPolicy fsyncPolicy;
+
+    @Value("${trade.journal.fsync.interval.ms}")
+    private long fsyncIntervalMillis;
+
+    @Value("${trade.journal.chunk.size.mb}")
+    private int chunkSizeMb;
+
+    @Bean
+    public TradeJournal tradeJournal() throws IOException {
+        return new TradeJournal(Paths.get(path), fsyncPolicy, fsyncIntervalMillis, chunkSizeMb);
+    }
+}
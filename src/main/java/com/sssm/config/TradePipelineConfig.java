@@ -0,0 +1,40 @@
+package com.sssm.config;
+
+import com.sssm.domain.Trade;
+import com.sssm.pipeline.SymbolBatchHandler;
+import com.sssm.pipeline.TradePipeline;
+import com.sssm.repository.TradeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(value = "trade.pipeline.enabled", havingValue = "true")
+public class TradePipelineConfig {
+
+    @Value("${trade.pipeline.buffer.size}")
+    private int bufferSize;
+
+    @Bean
+    public TradePipeline tradePipeline(TradeRepository tradeRepository) {
+        List<Trade> journalBatch = new ArrayList<>();
+        return new TradePipeline(bufferSize,
+                (event, sequence, endOfBatch) -> {
+                    journalBatch.add(event.getTrade());
+                    if (endOfBatch) {
+                        try {
+                            tradeRepository.appendToJournal(journalBatch);
+                        } finally {
+                            journalBatch.clear();
+                        }
+                    }
+                },
+                new SymbolBatchHandler(tradeRepository::addAllToWindow),
+                new SymbolBatchHandler(tradeRepository::addAllToBars),
+                new SymbolBatchHandler(tradeRepository::addAllToIndex));
+    }
+}
@@ -0,0 +1,20 @@
+package com.sssm.config;
+
+import com.sssm.controller.TradeBinaryMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Added after the default converters, so JSON is still chosen unless the binary media type is asked for.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new TradeBinaryMessageConverter());
+    }
+}
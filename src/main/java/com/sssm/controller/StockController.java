@@ -1,8 +1,11 @@
 package com.sssm.controller;
 
+import com.sssm.domain.StockPrices;
+import com.sssm.domain.StockValuation;
 import com.sssm.exception.InvalidDataException;
 import com.sssm.exception.NoDataException;
 import com.sssm.service.StockService;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
@@ -14,10 +17,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/stock")
 @Api(tags = "Stock API")
@@ -31,6 +38,7 @@ public class StockController {
 
     @ApiOperation(value = "Calculates the Dividend Yield for a given stock with a price.")
     @GetMapping(value = "/dividend-yield/{symbol}/{price}")
+    @Timed(value = "sssm.stock.dividend-yield", histogram = true)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully calculated the dividend yield."),
             @ApiResponse(code = 400, message = "Input data is invalid"),
@@ -56,6 +64,7 @@ public class StockController {
             @ApiResponse(code = 404, message = "Stock not found in the stock data.")
     })
     @GetMapping(value = "/pe-ratio/{symbol}/{price}")
+    @Timed(value = "sssm.stock.pe-ratio", histogram = true)
     public double calculatePERatio(@PathVariable("symbol") String symbol, @PathVariable("price") double price) {
         LOGGER.info("Received request to calculate PE Ratio for stock: {}, price: {}", symbol, price);
         try {
@@ -68,4 +77,25 @@ public class StockController {
             throw new ResponseStatusException(httpStatus, exception.getMessage());
         }
     }
+
+    @ApiOperation(value = "Calculates the Dividend Yield and P/E Ratio of many stocks, each for a list of prices.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully calculated the dividend yields and P/E ratios."),
+            @ApiResponse(code = 400, message = "Input data is invalid"),
+            @ApiResponse(code = 404, message = "Stock not found in the stock data.")
+    })
+    @PostMapping(value = "/valuations")
+    @Timed(value = "sssm.stock.valuations", histogram = true)
+    public List<StockValuation> calculateValuations(@RequestBody List<StockPrices> stockPricesList) {
+        LOGGER.info("Received request to calculate dividend yield and P/E ratio for {} stocks.", stockPricesList.size());
+        try {
+            List<StockValuation> valuations = stockService.calculateValuations(stockPricesList);
+            LOGGER.info("Dividend yields and P/E ratios calculated successfully.");
+            return valuations;
+        } catch (InvalidDataException | NoDataException exception) {
+            HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
+            LOGGER.error("Dividend yield and P/E ratio calculation failed, the response status is {}", httpStatus);
+            throw new ResponseStatusException(httpStatus, exception.getMessage());
+        }
+    }
 }
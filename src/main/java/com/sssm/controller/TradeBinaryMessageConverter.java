@@ -0,0 +1,132 @@
+package com.sssm.controller;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fixed layout binary encoding of trades and numeric results, negotiated with the application/x-sssm-binary media
+ * type. Fields are written and read one by one, big-endian like the socket frames of
+ * {@link com.sssm.ingest.TradeFrameCodec}, so no reflection or intermediate tree is involved.
+ * <pre>
+ * trade:      byte symbolLength, symbol, byte type, double price, int quantity, long timestamp (epoch nanos, 0 if unset)
+ * trade list: int count, count * trade
+ * number:     double value
+ * </pre>
+ * The type byte is the {@link TradeType} ordinal and the timestamp of a trade sent to the server is ignored.
+ * JSON stays the default, this converter is only picked when a client sends or accepts the binary media type.
+ */
+public class TradeBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-sssm-binary";
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+
+    public TradeBinaryMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == Trade.class || clazz == Double.class || clazz == double.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == Trade.class || isTradeList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (supports(clazz) || isTradeList(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputMessage.getBody()));
+        if (type == Trade.class) {
+            return readTrade(input, inputMessage);
+        }
+        int count = input.readInt();
+        if (count < 0) throw new HttpMessageNotReadableException("Invalid trade count " + count + ".", inputMessage);
+        List<Trade> trades = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            trades.add(readTrade(input, inputMessage));
+        }
+        return trades;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputMessage.getBody());
+        if (value instanceof Double) {
+            output.writeDouble((Double) value);
+        } else if (value instanceof Trade) {
+            writeTrade(output, (Trade) value);
+        } else if (value instanceof Collection) {
+            Collection<?> trades = (Collection<?>) value;
+            output.writeInt(trades.size());
+            for (Object trade : trades) {
+                writeTrade(output, (Trade) trade);
+            }
+        } else {
+            throw new HttpMessageNotWritableException("Can not write " + value.getClass() + " as " + MEDIA_TYPE_VALUE + ".");
+        }
+        output.flush();
+    }
+
+    private static Trade readTrade(DataInputStream input, HttpInputMessage inputMessage) throws IOException {
+        byte[] symbol = new byte[input.readUnsignedByte()];
+        input.readFully(symbol);
+        int type = input.readByte();
+        Trade trade = new Trade();
+        trade.setSymbol(new String(symbol, StandardCharsets.US_ASCII));
+        trade.setType(type >= 0 && type < TRADE_TYPES.length ? TRADE_TYPES[type] : null);
+        double price = input.readDouble();
+        if (!Double.isFinite(price)) throw new HttpMessageNotReadableException("Invalid trade price " + price + ".", inputMessage);
+        trade.setTradePrice(price);
+        trade.setQuantity(input.readInt());
+        input.readLong();
+        return trade;
+    }
+
+    private static void writeTrade(DataOutputStream output, Trade trade) throws IOException {
+        byte[] symbol = trade.getSymbol().getBytes(StandardCharsets.US_ASCII);
+        output.writeByte(symbol.length);
+        output.write(symbol);
+        output.writeByte(trade.getType() != null ? trade.getType().ordinal() : -1);
+        output.writeDouble(trade.getTradePrice());
+        output.writeInt(trade.getQuantity());
+        output.writeLong(trade.getTradeTimestampNanos());
+    }
+
+    private static boolean isTradeList(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        return parameterizedType.getRawType() == List.class && parameterizedType.getActualTypeArguments()[0] == Trade.class;
+    }
+}
@@ -1,9 +1,19 @@
 package com.sssm.controller;
 
+import com.sssm.domain.Bar;
+import com.sssm.domain.LeaderboardEntry;
+import com.sssm.domain.LogPriceSum;
 import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeReceipt;
+import com.sssm.domain.TradeResult;
 import com.sssm.exception.InvalidDataException;
 import com.sssm.exception.NoDataException;
+import com.sssm.exception.NodeUnavailableException;
+import com.sssm.exception.PipelineDisabledException;
 import com.sssm.service.TradeService;
+import com.sssm.stream.MarketDataPublisher;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
@@ -12,9 +22,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/trade")
@@ -27,15 +44,20 @@ public class TradeController {
     @Autowired
     private TradeService tradeService;
 
+    @Autowired
+    private MarketDataPublisher marketDataPublisher;
+
     @ApiOperation(value = "Records a trade.", response = Trade.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully recorded the trade."),
             @ApiResponse(code = 400, message = "Input data is invalid"),
-            @ApiResponse(code = 404, message = "Stock not found for the given trade data.")
+            @ApiResponse(code = 404, message = "Stock not found for the given trade data."),
+            @ApiResponse(code = 503, message = "The cluster node owning the stock is unavailable.")
     })
     @PostMapping(value = "/record")
+    @Timed(value = "sssm.trade.record", histogram = true)
     public Trade recordTrade(@RequestBody Trade tradeRequest) {
-        LOGGER.info("Received request to record trade: {}", tradeRequest);
+        LOGGER.info("Received request to record trade for stock: {}", tradeRequest.getSymbol());
         try {
             Trade trade = tradeService.recordTrade(tradeRequest);
             LOGGER.info("Trade recorded successfully.");
@@ -44,6 +66,57 @@ public class TradeController {
             HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
             LOGGER.error("Unable to record trade, the response status is {}", httpStatus);
             throw new ResponseStatusException(httpStatus, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Unable to record trade, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "Submits a trade to the asynchronous ingestion pipeline.", response = TradeReceipt.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Trade accepted, it is stored once the pipeline reaches its sequence."),
+            @ApiResponse(code = 400, message = "Input data is invalid"),
+            @ApiResponse(code = 404, message = "Stock not found for the given trade data."),
+            @ApiResponse(code = 501, message = "The trade pipeline is not enabled."),
+            @ApiResponse(code = 503, message = "The cluster node owning the stock is unavailable.")
+    })
+    @PostMapping(value = "/submit")
+    @Timed(value = "sssm.trade.submit", histogram = true)
+    public TradeReceipt submitTrade(@RequestBody Trade tradeRequest) {
+        LOGGER.info("Received request to submit trade for stock: {}", tradeRequest.getSymbol());
+        try {
+            TradeReceipt tradeReceipt = tradeService.submitTrade(tradeRequest);
+            LOGGER.info("Trade submitted successfully.");
+            return tradeReceipt;
+        } catch (InvalidDataException | NoDataException exception) {
+            HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
+            LOGGER.error("Unable to submit trade, the response status is {}", httpStatus);
+            throw new ResponseStatusException(httpStatus, exception.getMessage());
+        } catch (PipelineDisabledException exception) {
+            LOGGER.error("Unable to submit trade, the response status is {}", HttpStatus.NOT_IMPLEMENTED);
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Unable to submit trade, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "Records a batch of trades, returning the outcome of each trade in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully processed the batch."),
+            @ApiResponse(code = 400, message = "The batch is empty")
+    })
+    @PostMapping(value = "/record-batch")
+    @Timed(value = "sssm.trade.record-batch", histogram = true)
+    public List<TradeResult> recordTrades(@RequestBody List<Trade> tradeRequests) {
+        LOGGER.info("Received request to record {} trades.", tradeRequests.size());
+        try {
+            List<TradeResult> tradeResults = tradeService.recordTrades(tradeRequests);
+            LOGGER.info("Trade batch processed successfully.");
+            return tradeResults;
+        } catch (InvalidDataException exception) {
+            LOGGER.error("Unable to record trade batch, the response status is {}", HttpStatus.BAD_REQUEST);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage());
         }
     }
 
@@ -51,9 +124,11 @@ public class TradeController {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully calculated volume weighted stock price."),
             @ApiResponse(code = 400, message = "Input data is invalid"),
-            @ApiResponse(code = 404, message = "Stock not found for the given stock symbol.")
+            @ApiResponse(code = 404, message = "Stock not found for the given stock symbol."),
+            @ApiResponse(code = 503, message = "The cluster node owning the stock is unavailable.")
     })
     @GetMapping(value = "/volume-weighted-stock-price/{symbol}")
+    @Timed(value = "sssm.trade.volume-weighted-stock-price", histogram = true)
     public double calculateVolumeWeightedStockPrice(@PathVariable("symbol") String symbol) {
         LOGGER.info("Received request to calculate volume weighted stock price for stock: {}", symbol);
         try {
@@ -64,16 +139,165 @@ public class TradeController {
             HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
             LOGGER.error("Volume Weighted Stock Price calculation failed, the response status is {}", httpStatus);
             throw new ResponseStatusException(httpStatus, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Volume Weighted Stock Price calculation failed, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "Calculates Volume Weighted Stock Prices for several stocks.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully calculated the volume weighted stock prices."),
+            @ApiResponse(code = 400, message = "Input data is invalid"),
+            @ApiResponse(code = 404, message = "Stock not found for one of the given stock symbols."),
+            @ApiResponse(code = 503, message = "A cluster node owning one of the stocks is unavailable.")
+    })
+    @PostMapping(value = "/volume-weighted-stock-prices")
+    @Timed(value = "sssm.trade.volume-weighted-stock-prices", histogram = true)
+    public Map<String, Double> calculateVolumeWeightedStockPrices(@RequestBody List<String> symbols) {
+        LOGGER.info("Received request to calculate volume weighted stock prices for stocks: {}", symbols);
+        try {
+            Map<String, Double> volumeWeightedStockPrices = tradeService.calculateVolumeWeightedStockPrices(symbols);
+            LOGGER.info("Volume Weighted Stock Prices calculated successfully.");
+            return volumeWeightedStockPrices;
+        } catch (InvalidDataException | NoDataException exception) {
+            HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
+            LOGGER.error("Volume Weighted Stock Prices calculation failed, the response status is {}", httpStatus);
+            throw new ResponseStatusException(httpStatus, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Volume Weighted Stock Prices calculation failed, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
         }
     }
 
     @ApiOperation(value = "Calculates GBCE All Share Index.")
-    @ApiResponse(code = 200, message = "Successfully calculated volume weighted stock price.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully calculated the GBCE All Share Index."),
+            @ApiResponse(code = 503, message = "A cluster node is unavailable.")
+    })
     @GetMapping(value = "/gbce")
+    @Timed(value = "sssm.trade.gbce", histogram = true)
     public double calculateGBCEAllShareIndex() {
         LOGGER.info("Received request to calculate GBCE All Share Index.");
-        double gbceAllShareIndex = tradeService.calculateGBCEAllShareIndex();
-        LOGGER.info("GBCE All Share Index calculated successfully.");
-        return gbceAllShareIndex;
+        try {
+            double gbceAllShareIndex = tradeService.calculateGBCEAllShareIndex();
+            LOGGER.info("GBCE All Share Index calculated successfully.");
+            return gbceAllShareIndex;
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("GBCE All Share Index calculation failed, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "Returns the log price sum and count of the trades recorded on this node, gathered by cluster nodes to calculate the GBCE All Share Index.", response = LogPriceSum.class)
+    @ApiResponse(code = 200, message = "Successfully read the log price sum.")
+    @GetMapping(value = "/gbce/log-price-sum")
+    @Timed(value = "sssm.trade.gbce.log-price-sum", histogram = true)
+    public LogPriceSum getLogPriceSum() {
+        LOGGER.info("Received request for the log price sum of this node.");
+        return tradeService.getLogPriceSum();
+    }
+
+    @ApiOperation(value = "Returns a page of the trades of a stock from a time (inclusive) to a time (exclusive).")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully read the trades."),
+            @ApiResponse(code = 400, message = "Input data is invalid"),
+            @ApiResponse(code = 404, message = "Stock not found for the given stock symbol."),
+            @ApiResponse(code = 503, message = "The cluster node owning the stock is unavailable.")
+    })
+    @GetMapping(value = "/trades/{symbol}")
+    @Timed(value = "sssm.trade.trades", histogram = true)
+    public TradePage getTrades(@PathVariable("symbol") String symbol,
+                               @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                               @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                               @RequestParam(value = "offset", defaultValue = "0") int offset,
+                               @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        LOGGER.info("Received request for trades of stock: {}", symbol);
+        try {
+            TradePage tradePage = tradeService.getTrades(symbol, from, to, offset, limit);
+            LOGGER.info("Trades read successfully.");
+            return tradePage;
+        } catch (InvalidDataException | NoDataException exception) {
+            HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
+            LOGGER.error("Unable to read trades, the response status is {}", httpStatus);
+            throw new ResponseStatusException(httpStatus, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Unable to read trades, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "Returns the latest OHLCV bars of a stock at 1s, 1m or 5m resolution, oldest first.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully read the bars."),
+            @ApiResponse(code = 400, message = "Input data is invalid"),
+            @ApiResponse(code = 404, message = "Stock not found for the given stock symbol."),
+            @ApiResponse(code = 503, message = "The cluster node owning the stock is unavailable.")
+    })
+    @GetMapping(value = "/bars/{symbol}")
+    @Timed(value = "sssm.trade.bars", histogram = true)
+    public List<Bar> getBars(@PathVariable("symbol") String symbol,
+                             @RequestParam(value = "resolution", defaultValue = "1m") String resolution,
+                             @RequestParam(value = "count", defaultValue = "60") int count) {
+        LOGGER.info("Received request for {} bars of stock: {}", resolution, symbol);
+        try {
+            List<Bar> bars = tradeService.getBars(symbol, resolution, count);
+            LOGGER.info("Bars read successfully.");
+            return bars;
+        } catch (InvalidDataException | NoDataException exception) {
+            HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
+            LOGGER.error("Unable to read bars, the response status is {}", httpStatus);
+            throw new ResponseStatusException(httpStatus, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Unable to read bars, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "Returns the most traded stocks of the last minutes by volume, notional or trade count.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully read the top stocks."),
+            @ApiResponse(code = 400, message = "Input data is invalid"),
+            @ApiResponse(code = 503, message = "A cluster node is unavailable.")
+    })
+    @GetMapping(value = "/top")
+    @Timed(value = "sssm.trade.top", histogram = true)
+    public List<LeaderboardEntry> getTopSymbols(@RequestParam(value = "metric", defaultValue = "volume") String metric,
+                                                @RequestParam(value = "count", defaultValue = "10") int count) {
+        LOGGER.info("Received request for the top {} stocks by {}", count, metric);
+        try {
+            List<LeaderboardEntry> entries = tradeService.getTopSymbols(metric, count);
+            LOGGER.info("Top stocks read successfully.");
+            return entries;
+        } catch (InvalidDataException exception) {
+            LOGGER.error("Unable to read the top stocks, the response status is {}", HttpStatus.BAD_REQUEST);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Unable to read the top stocks, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "Streams Volume Weighted Stock Price and GBCE All Share Index updates as Server-Sent Events.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully subscribed to market data updates."),
+            @ApiResponse(code = 400, message = "Input data is invalid"),
+            @ApiResponse(code = 404, message = "Stock not found for the given stock symbol."),
+            @ApiResponse(code = 503, message = "A cluster node is unavailable.")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMarketData(@RequestParam(value = "symbols", required = false) List<String> symbols,
+                                       @RequestParam(value = "gbce", defaultValue = "false") boolean gbce) {
+        LOGGER.info("Received request to stream market data for stocks: {}, GBCE: {}", symbols, gbce);
+        try {
+            return marketDataPublisher.subscribe(symbols, gbce);
+        } catch (InvalidDataException | NoDataException exception) {
+            HttpStatus httpStatus = exception instanceof InvalidDataException ? HttpStatus.BAD_REQUEST : HttpStatus.NOT_FOUND;
+            LOGGER.error("Market data subscription failed, the response status is {}", httpStatus);
+            throw new ResponseStatusException(httpStatus, exception.getMessage());
+        } catch (NodeUnavailableException exception) {
+            LOGGER.error("Market data subscription failed, the response status is {}", HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        }
     }
 }
@@ -0,0 +1,112 @@
+package com.sssm.data;
+
+import com.sssm.domain.LogPriceSum;
+import com.sssm.domain.Trade;
+
+import java.util.List;
+
+/**
+ * Geometric mean of all recorded trade prices, kept as a compensated running sum of log prices so it
+ * neither overflows nor needs the trades to be revisited.
+ * The sum is striped by symbol id, so trades for different symbols update different stripes under different
+ * locks and ingest scales across cores; reading the index combines the stripes.
+ * Every stripe counts its writes, the sum of the counts versions the last value read so it can be served from a
+ * cache without taking the stripe locks.
+ * The combined log price sum and trade count are exposed as well, so the indexes of several nodes can be merged.
+ */
+public class AllShareIndex {
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private volatile CachedValue cachedValue;
+
+    public AllShareIndex() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public AllShareIndex(int stripeCount) {
+        int capacity = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[capacity];
+        for (int i = 0; i < capacity; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = capacity - 1;
+    }
+
+    public void add(int symbolId, double price) {
+        Stripe stripe = stripes[symbolId & mask];
+        synchronized (stripe) {
+            stripe.addLogPrice(Math.log(price));
+            stripe.version++;
+        }
+    }
+
+    public void addAll(int symbolId, List<Trade> tradeList) {
+        Stripe stripe = stripes[symbolId & mask];
+        synchronized (stripe) {
+            for (Trade trade : tradeList) {
+                stripe.addLogPrice(Math.log(trade.getTradePrice()));
+            }
+            stripe.version++;
+        }
+    }
+
+    public double getValue() {
+        long version = getVersion();
+        double value = getLogPriceSum().getGeometricMean();
+        cachedValue = new CachedValue(version, value, CachedValue.NEVER);
+        return value;
+    }
+
+    public LogPriceSum getLogPriceSum() {
+        // Neumaier summation of the stripe sums, which also keeps what they lose cancelling each other out, with
+        // every stripe's Kahan compensation carried into the correction
+        double logPriceSum = 0.0;
+        double correction = 0.0;
+        long tradeCount = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                double sum = logPriceSum + stripe.logPriceSum;
+                correction += Math.abs(logPriceSum) >= Math.abs(stripe.logPriceSum)
+                        ? (logPriceSum - sum) + stripe.logPriceSum
+                        : (stripe.logPriceSum - sum) + logPriceSum;
+                correction -= stripe.compensation;
+                logPriceSum = sum;
+                tradeCount += stripe.tradeCount;
+            }
+        }
+        return new LogPriceSum(logPriceSum + correction, tradeCount);
+    }
+
+    /**
+     * The value cached by the last {@link #getValue()} if no trade was added since, else null.
+     */
+    public CachedValue getCachedValue() {
+        CachedValue cached = cachedValue;
+        return cached != null && cached.isValid(getVersion(), 0) ? cached : null;
+    }
+
+    private long getVersion() {
+        long version = 0;
+        for (Stripe stripe : stripes) {
+            version += stripe.version;
+        }
+        return version;
+    }
+
+    private static final class Stripe {
+
+        private double logPriceSum;
+        private double compensation;
+        private long tradeCount;
+        private volatile long version;
+
+        private void addLogPrice(double logPrice) {
+            double term = logPrice - compensation;
+            double sum = logPriceSum + term;
+            compensation = (sum - logPriceSum) - term;
+            logPriceSum = sum;
+            tradeCount++;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.sssm.data;
+
+/**
+ * A calculated value together with the version of the data it was calculated from and the epoch nanos at which
+ * it goes stale regardless of writes. Immutable, so it is safely published through a volatile field.
+ */
+public final class CachedValue {
+
+    static final long NEVER = Long.MAX_VALUE;
+
+    private final long version;
+    private final double value;
+    private final long expiresAtNanos;
+
+    CachedValue(long version, double value, long expiresAtNanos) {
+        this.version = version;
+        this.value = value;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    boolean isValid(long currentVersion, long nowNanos) {
+        return version == currentVersion && nowNanos < expiresAtNanos;
+    }
+}
@@ -0,0 +1,164 @@
+package com.sssm.data;
+
+import java.util.Arrays;
+
+/**
+ * Indexed max-heap of symbol ids ordered by a value, with the heap position of every id kept so a symbol's value
+ * is changed in O(log symbols). The top n ids are read in O(n log n) by walking the heap from the root.
+ * Not thread safe, {@link TradeLeaderboards} guards it.
+ */
+class Leaderboard {
+
+    private int[] heap = new int[16];
+    private int[] positions = new int[16];
+    private double[] values = new double[16];
+    private int size;
+
+    Leaderboard() {
+        Arrays.fill(positions, -1);
+    }
+
+    void update(int symbolId, double value) {
+        if (symbolId >= positions.length) {
+            int capacity = Math.max(symbolId + 1, positions.length << 1);
+            int length = positions.length;
+            positions = Arrays.copyOf(positions, capacity);
+            Arrays.fill(positions, length, capacity, -1);
+            values = Arrays.copyOf(values, capacity);
+        }
+        int position = positions[symbolId];
+        if (value <= 0.0) {
+            if (position >= 0) {
+                remove(position);
+            }
+            return;
+        }
+        double previous = values[symbolId];
+        values[symbolId] = value;
+        if (position < 0) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size << 1);
+            }
+            heap[size] = symbolId;
+            positions[symbolId] = size;
+            siftUp(size++);
+        } else if (value > previous) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    int[] top(int count) {
+        int[] result = new int[Math.min(count, size)];
+        // Max-heap of the heap positions whose parents were taken, every step takes one and adds at most two
+        int[] candidates = new int[result.length + 1];
+        int candidateCount = 0;
+        if (size > 0) {
+            candidateCount = addCandidate(candidates, candidateCount, 0);
+        }
+        for (int i = 0; i < result.length; i++) {
+            int position = candidates[0];
+            candidateCount = removeFirstCandidate(candidates, candidateCount);
+            result[i] = heap[position];
+            int child = 2 * position + 1;
+            if (child < size) {
+                candidateCount = addCandidate(candidates, candidateCount, child);
+            }
+            if (child + 1 < size) {
+                candidateCount = addCandidate(candidates, candidateCount, child + 1);
+            }
+        }
+        return result;
+    }
+
+    double getValue(int symbolId) {
+        return symbolId < values.length && positions[symbolId] >= 0 ? values[symbolId] : 0.0;
+    }
+
+    private int addCandidate(int[] candidates, int candidateCount, int position) {
+        int index = candidateCount;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (values[heap[candidates[parent]]] >= values[heap[position]]) {
+                break;
+            }
+            candidates[index] = candidates[parent];
+            index = parent;
+        }
+        candidates[index] = position;
+        return candidateCount + 1;
+    }
+
+    private int removeFirstCandidate(int[] candidates, int candidateCount) {
+        int last = candidates[--candidateCount];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= candidateCount) {
+                break;
+            }
+            if (child + 1 < candidateCount && values[heap[candidates[child + 1]]] > values[heap[candidates[child]]]) {
+                child++;
+            }
+            if (values[heap[candidates[child]]] <= values[heap[last]]) {
+                break;
+            }
+            candidates[index] = candidates[child];
+            index = child;
+        }
+        candidates[index] = last;
+        return candidateCount;
+    }
+
+    private void remove(int position) {
+        int removed = heap[position];
+        positions[removed] = -1;
+        values[removed] = 0.0;
+        size--;
+        if (position == size) {
+            return;
+        }
+        heap[position] = heap[size];
+        positions[heap[position]] = position;
+        siftDown(position);
+        siftUp(position);
+    }
+
+    private void siftUp(int position) {
+        int symbolId = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (values[heap[parent]] >= values[symbolId]) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(symbolId, position);
+    }
+
+    private void siftDown(int position) {
+        int symbolId = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && values[heap[child + 1]] > values[heap[child]]) {
+                child++;
+            }
+            if (values[heap[child]] <= values[symbolId]) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(symbolId, position);
+    }
+
+    private void move(int symbolId, int position) {
+        heap[position] = symbolId;
+        positions[symbolId] = position;
+    }
+}
@@ -3,32 +3,135 @@ package com.sssm.data;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sssm.domain.Stock;
+import com.sssm.exception.InvalidDataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Holds the current {@link StockTable}. The table is loaded from the bundled stock-data.json, or from the file at
+ * stock.data.path when set, which is then watched and reloaded on change. A reload swaps in a whole new table, so
+ * pricing requests in flight keep reading the table they started with. Stock data with a missing symbol or type, or
+ * a negative or non finite amount, is rejected as a whole and the current table is kept.
+ */
 @Component
 public class StockData {
 
-    private ConcurrentHashMap<String, Stock> stockData;
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockData.class);
+    private static final TypeReference<List<Stock>> STOCK_LIST = new TypeReference<>() {
+    };
 
-    public ConcurrentHashMap<String, Stock> getStockData() {
-        return stockData;
+    @Value("${stock.data.path:}")
+    private String stockDataPath;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final List<StockTableListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile StockTable stockTable = new StockTable(symbolTable, List.of());
+    private WatchService watchService;
+
+    public StockTable getStockTable() {
+        return stockTable;
+    }
+
+    public void addListener(StockTableListener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void load(Collection<Stock> stocks) {
+        if (stocks == null) throw new InvalidDataException("Stock data is empty.");
+        for (Stock stock : stocks) {
+            validate(stock);
+        }
+        stockTable = new StockTable(symbolTable, stocks);
+        LOGGER.info("Loaded stock data for {} stocks.", stocks.size());
+        for (StockTableListener listener : listeners) {
+            listener.stockTableChanged(stockTable);
+        }
+    }
+
+    private static void validate(Stock stock) {
+        if (stock == null) throw new InvalidDataException("Stock data contains an empty entry.");
+        if (!StringUtils.hasText(stock.getSymbol())) throw new InvalidDataException("Stock data contains a stock without a symbol.");
+        if (stock.getType() == null) throw new InvalidDataException("Stock " + stock.getSymbol() + " has no type.");
+        if (isInvalidAmount(stock.getLastDividend()) || isInvalidAmount(stock.getFixedDividend()) || isInvalidAmount(stock.getParValue())) {
+            throw new InvalidDataException("Stock " + stock.getSymbol() + " has an invalid dividend or par value.");
+        }
+    }
+
+    private static boolean isInvalidAmount(double amount) {
+        return !Double.isFinite(amount) || amount < 0.0;
     }
 
     @PostConstruct
-    private void init() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        stockData = new ConcurrentHashMap<>();
+    private void init() throws IOException {
+        if (!StringUtils.hasText(stockDataPath)) {
+            try (InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream("stock-data.json")) {
+                load(objectMapper.readValue(inputStream, STOCK_LIST));
+            }
+            return;
+        }
+        Path path = Paths.get(stockDataPath).toAbsolutePath();
+        load(objectMapper.readValue(path.toFile(), STOCK_LIST));
+        watchService = path.getFileSystem().newWatchService();
+        path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(() -> watch(path), "stock-data-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    private void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Path path) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= path.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    reload(path);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Stopped watching stock data file.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void reload(Path path) {
         try {
-            List<Stock> stocks = objectMapper.readValue(this.getClass().getClassLoader().getResourceAsStream("stock-data.json"), new TypeReference<>() {
-            });
-            stocks.forEach(stock -> stockData.put(stock.getSymbol(), stock));
-        } catch (IOException e) {
-            e.printStackTrace();
+            if (Files.size(path) > 0) {
+                load(objectMapper.readValue(path.toFile(), STOCK_LIST));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Unable to reload stock data from {}, keeping the current stock data.", path, e);
         }
     }
 }
@@ -0,0 +1,84 @@
+package com.sssm.data;
+
+import com.sssm.domain.Stock;
+import com.sssm.domain.StockType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the stock reference data, indexed by interned symbol id. The dividend used for the yield,
+ * the last dividend of a common stock or fixed dividend * par value of a preferred one, is computed once on load.
+ * A reload builds a new table rather than changing this one, so a request reading one table sees consistent data.
+ */
+public class StockTable {
+
+    private final SymbolTable symbolTable;
+    private final Stock[] stocks;
+    private final double[] dividends;
+    private final List<String> symbols;
+
+    public StockTable(SymbolTable symbolTable, Collection<Stock> stockList) {
+        this.symbolTable = symbolTable;
+        int[] ids = new int[stockList.size()];
+        int capacity = 0;
+        int i = 0;
+        for (Stock stock : stockList) {
+            ids[i] = symbolTable.intern(stock.getSymbol());
+            capacity = Math.max(capacity, ids[i] + 1);
+            i++;
+        }
+        this.stocks = new Stock[capacity];
+        this.dividends = new double[capacity];
+        List<String> symbolList = new ArrayList<>(stockList.size());
+        i = 0;
+        for (Stock stock : stockList) {
+            stocks[ids[i]] = copy(stock);
+            dividends[ids[i]] = StockType.COMMON == stock.getType()
+                    ? stock.getLastDividend()
+                    : stock.getFixedDividend() * stock.getParValue();
+            symbolList.add(stock.getSymbol());
+            i++;
+        }
+        this.symbols = Collections.unmodifiableList(symbolList);
+    }
+
+    public int find(String symbol) {
+        int id = symbolTable.find(symbol);
+        return id != SymbolTable.UNKNOWN && id < stocks.length && stocks[id] != null ? id : SymbolTable.UNKNOWN;
+    }
+
+    public Stock getStock(int id) {
+        return copy(stocks[id]);
+    }
+
+    public double getDividend(int id) {
+        return dividends[id];
+    }
+
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    public List<Stock> getStocks() {
+        List<Stock> result = new ArrayList<>(symbols.size());
+        for (Stock stock : stocks) {
+            if (stock != null) {
+                result.add(copy(stock));
+            }
+        }
+        return result;
+    }
+
+    private static Stock copy(Stock stock) {
+        Stock copy = new Stock();
+        copy.setSymbol(stock.getSymbol());
+        copy.setType(stock.getType());
+        copy.setLastDividend(stock.getLastDividend());
+        copy.setFixedDividend(stock.getFixedDividend());
+        copy.setParValue(stock.getParValue());
+        return copy;
+    }
+}
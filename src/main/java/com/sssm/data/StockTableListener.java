@@ -0,0 +1,9 @@
+package com.sssm.data;
+
+/**
+ * Told about every new {@link StockTable} that {@link StockData} swaps in, after the swap.
+ */
+public interface StockTableListener {
+
+    void stockTableChanged(StockTable stockTable);
+}
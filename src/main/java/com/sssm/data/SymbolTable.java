@@ -0,0 +1,44 @@
+package com.sssm.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns stock symbols to dense int ids so per-symbol state can live in arrays indexed by id.
+ */
+public class SymbolTable {
+
+    public static final int UNKNOWN = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        synchronized (symbols) {
+            return ids.computeIfAbsent(symbol, key -> {
+                symbols.add(key);
+                return symbols.size() - 1;
+            });
+        }
+    }
+
+    public int find(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : UNKNOWN;
+    }
+
+    public String getSymbol(int id) {
+        synchronized (symbols) {
+            return symbols.get(id);
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
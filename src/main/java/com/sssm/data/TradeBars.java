@@ -0,0 +1,116 @@
+package com.sssm.data;
+
+import com.sssm.clock.TradeClock;
+import com.sssm.domain.Bar;
+import com.sssm.domain.BarResolution;
+import com.sssm.domain.Trade;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open/high/low/close/volume bars of one stock at every {@link BarResolution}, updated as each trade is stored.
+ * Each resolution keeps its latest bars in fixed size rolling arrays; intervals without trades have no bar.
+ */
+public class TradeBars {
+
+    private static final BarResolution[] RESOLUTIONS = BarResolution.values();
+
+    private final Series[] series = new Series[RESOLUTIONS.length];
+
+    public TradeBars(int history) {
+        if (history <= 0) throw new IllegalArgumentException("At least one bar must be kept, not " + history + ".");
+        for (int i = 0; i < RESOLUTIONS.length; i++) {
+            series[i] = new Series(RESOLUTIONS[i].getDuration().toNanos(), history);
+        }
+    }
+
+    public synchronized void add(Trade trade) {
+        long epochNanos = trade.getTradeTimestampNanos();
+        for (Series resolutionSeries : series) {
+            resolutionSeries.add(epochNanos, trade.getTradePrice(), trade.getQuantity());
+        }
+    }
+
+    public synchronized void addAll(List<Trade> tradeList) {
+        for (Trade trade : tradeList) {
+            add(trade);
+        }
+    }
+
+    public synchronized List<Bar> getBars(BarResolution resolution, int count) {
+        return series[resolution.ordinal()].getBars(count);
+    }
+
+    private static final class Series {
+
+        private final long resolutionNanos;
+        private final long[] starts;
+        private final double[] opens;
+        private final double[] highs;
+        private final double[] lows;
+        private final double[] closes;
+        private final long[] volumes;
+        private int latest = -1;
+        private int size;
+
+        private Series(long resolutionNanos, int history) {
+            this.resolutionNanos = resolutionNanos;
+            this.starts = new long[history];
+            this.opens = new double[history];
+            this.highs = new double[history];
+            this.lows = new double[history];
+            this.closes = new double[history];
+            this.volumes = new long[history];
+        }
+
+        private void add(long epochNanos, double price, int quantity) {
+            long start = Math.floorDiv(epochNanos, resolutionNanos) * resolutionNanos;
+            if (size == 0 || start > starts[latest]) {
+                latest = (latest + 1) % starts.length;
+                size = Math.min(size + 1, starts.length);
+                starts[latest] = start;
+                opens[latest] = price;
+                highs[latest] = price;
+                lows[latest] = price;
+                closes[latest] = price;
+                volumes[latest] = quantity;
+                return;
+            }
+            int index = find(start);
+            if (index < 0) {
+                return;
+            }
+            highs[index] = Math.max(highs[index], price);
+            lows[index] = Math.min(lows[index], price);
+            if (index == latest) {
+                closes[index] = price;
+            }
+            volumes[index] += quantity;
+        }
+
+        private int find(long start) {
+            for (int i = 0; i < size; i++) {
+                int index = Math.floorMod(latest - i, starts.length);
+                if (starts[index] == start) {
+                    return index;
+                }
+                if (starts[index] < start) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        private List<Bar> getBars(int count) {
+            int barCount = Math.min(count, size);
+            List<Bar> bars = new ArrayList<>(barCount);
+            for (int i = barCount - 1; i >= 0; i--) {
+                int index = Math.floorMod(latest - i, starts.length);
+                bars.add(new Bar(TradeClock.toLocalDateTime(starts[index]), opens[index], highs[index], lows[index],
+                        closes[index], volumes[index]));
+            }
+            return bars;
+        }
+    }
+}
@@ -1,23 +1,143 @@
 package com.sssm.data;
 
-import com.sssm.domain.Trade;
+import com.sssm.clock.TradeClock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class TradeData {
 
-    private ConcurrentHashMap<String, List<Trade>> tradeData;
+    @Autowired
+    private TradeClock tradeClock;
 
-    public ConcurrentHashMap<String, List<Trade>> getTradeData() {
+    @Value("${minutes.last.trades}")
+    private Integer minutes;
+
+    @Value("${trade.history.minutes}")
+    private Integer historyMinutes;
+
+    @Value("${trade.bars.history}")
+    private int barHistory;
+
+    @Value("${trade.leaderboard.expiry.ms}")
+    private long leaderboardExpiryMillis;
+
+    private SymbolTable symbolTable;
+
+    private volatile TradeWindow[] tradeData;
+
+    private volatile TradeBars[] tradeBars;
+
+    private AllShareIndex allShareIndex;
+
+    private TradeLeaderboards tradeLeaderboards;
+
+    private ScheduledExecutorService expiryExecutor;
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public TradeWindow[] getTradeData() {
         return tradeData;
     }
 
+    public TradeWindow getTradeWindow(int symbolId) {
+        TradeWindow[] tradeWindows = tradeData;
+        return symbolId >= 0 && symbolId < tradeWindows.length ? tradeWindows[symbolId] : null;
+    }
+
+    public TradeWindow getOrCreateTradeWindow(int symbolId) {
+        TradeWindow tradeWindow = getTradeWindow(symbolId);
+        if (tradeWindow != null) {
+            return tradeWindow;
+        }
+        synchronized (this) {
+            TradeWindow[] tradeWindows = tradeData;
+            if (symbolId < tradeWindows.length && tradeWindows[symbolId] != null) {
+                return tradeWindows[symbolId];
+            }
+            // Readers index the arrays without locking, so a new window is only ever stored into a fresh copy
+            // that is then published through the volatile fields
+            int length = symbolId < tradeWindows.length ? tradeWindows.length : Math.max(symbolId + 1, tradeWindows.length << 1);
+            tradeWindows = Arrays.copyOf(tradeWindows, length);
+            TradeBars[] bars = Arrays.copyOf(tradeBars, length);
+            bars[symbolId] = new TradeBars(barHistory);
+            tradeWindows[symbolId] = new TradeWindow(symbolTable.getSymbol(symbolId), getWindow(), getHistory(),
+                    tradeLeaderboards.listener(symbolId));
+            tradeBars = bars;
+            tradeData = tradeWindows;
+            return tradeWindows[symbolId];
+        }
+    }
+
+    public TradeBars getOrCreateTradeBars(int symbolId) {
+        getOrCreateTradeWindow(symbolId);
+        return tradeBars[symbolId];
+    }
+
+    public TradeBars getTradeBars(int symbolId) {
+        TradeBars[] bars = tradeBars;
+        return symbolId >= 0 && symbolId < bars.length ? bars[symbolId] : null;
+    }
+
+    public AllShareIndex getAllShareIndex() {
+        return allShareIndex;
+    }
+
+    public TradeLeaderboards getTradeLeaderboards() {
+        return tradeLeaderboards;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofMinutes(minutes);
+    }
+
+    public Duration getHistory() {
+        return Duration.ofMinutes(historyMinutes);
+    }
+
     @PostConstruct
     private void init() {
-        tradeData = new ConcurrentHashMap<>();
+        if (barHistory <= 0) throw new IllegalStateException("trade.bars.history must be at least 1, not " + barHistory + ".");
+        symbolTable = new SymbolTable();
+        tradeData = new TradeWindow[16];
+        tradeBars = new TradeBars[16];
+        allShareIndex = new AllShareIndex();
+        tradeLeaderboards = new TradeLeaderboards(symbolTable);
+        expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-window-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryExecutor.scheduleWithFixedDelay(this::expireTrades, leaderboardExpiryMillis, leaderboardExpiryMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    private void destroy() {
+        expiryExecutor.shutdownNow();
+    }
+
+    /**
+     * Expires the trades of every window, so stocks that stopped trading still drop down the leaderboards.
+     */
+    void expireTrades() {
+        long now = tradeClock.epochNanos();
+        for (TradeWindow tradeWindow : tradeData) {
+            if (tradeWindow != null) {
+                tradeWindow.getSize(now);
+            }
+        }
+        tradeLeaderboards.applyChangedTotals();
     }
 }
@@ -0,0 +1,166 @@
+package com.sssm.data;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of fixed width trade records written through memory-mapped chunks of a single file.
+ * A record is written with its symbol length last, so a zero length marks the end of the journal on reopen.
+ */
+public class TradeJournal implements Closeable {
+
+    public enum FsyncPolicy {
+        NEVER, INTERVAL, ALWAYS
+    }
+
+    static final int RECORD_SIZE = 32;
+    static final int MAX_SYMBOL_LENGTH = RECORD_SIZE - 22;
+
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final long chunkSize;
+    private final ScheduledExecutorService fsyncExecutor;
+    private MappedByteBuffer chunk;
+    private long chunkPosition;
+    private boolean dirty;
+
+    public TradeJournal(Path path, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, int chunkSizeMb) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.fsyncPolicy = fsyncPolicy;
+        this.chunkSize = (long) chunkSizeMb * 1024 * 1024 / RECORD_SIZE * RECORD_SIZE;
+        this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, chunkSize);
+        while (chunk.get(chunk.position() + 21) > 0) {
+            chunk.position(chunk.position() + RECORD_SIZE);
+            if (!chunk.hasRemaining()) {
+                nextChunk();
+            }
+        }
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            fsyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "trade-journal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncExecutor.scheduleWithFixedDelay(this::flush, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            fsyncExecutor = null;
+        }
+    }
+
+    public long replay(Consumer<Trade> consumer) throws IOException {
+        long end;
+        synchronized (this) {
+            end = chunkPosition + chunk.position();
+        }
+        long count = 0;
+        for (long offset = 0; offset < end; offset += chunkSize) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(chunkSize, end - offset));
+            for (int position = 0; position < buffer.limit(); position += RECORD_SIZE) {
+                consumer.accept(read(buffer, position));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized void append(Trade trade) {
+        write(trade);
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            chunk.force();
+        }
+    }
+
+    public synchronized void appendAll(List<Trade> tradeList) {
+        for (Trade trade : tradeList) {
+            write(trade);
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            chunk.force();
+        }
+    }
+
+    public synchronized void flush() {
+        if (dirty) {
+            chunk.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (fsyncExecutor != null) {
+            fsyncExecutor.shutdown();
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            chunk.force();
+        }
+        channel.close();
+    }
+
+    private static Trade read(MappedByteBuffer buffer, int position) {
+        int symbolLength = buffer.get(position + 21);
+        byte[] symbol = new byte[symbolLength];
+        for (int i = 0; i < symbolLength; i++) {
+            symbol[i] = buffer.get(position + 22 + i);
+        }
+        Trade trade = new Trade();
+        trade.setSymbol(new String(symbol, StandardCharsets.US_ASCII));
+        trade.setType(TRADE_TYPES[buffer.get(position + 20)]);
+        trade.setTradePrice(buffer.getDouble(position + 8));
+        trade.setQuantity(buffer.getInt(position + 16));
+        trade.setTradeTimestampNanos(buffer.getLong(position));
+        return trade;
+    }
+
+    private void write(Trade trade) {
+        byte[] symbol = trade.getSymbol().getBytes(StandardCharsets.US_ASCII);
+        if (symbol.length > MAX_SYMBOL_LENGTH)
+            throw new IllegalArgumentException("Stock symbol " + trade.getSymbol() + " is too long for the trade journal.");
+        if (!chunk.hasRemaining()) {
+            nextChunk();
+        }
+        int position = chunk.position();
+        chunk.putLong(position, trade.getTradeTimestampNanos());
+        chunk.putDouble(position + 8, trade.getTradePrice());
+        chunk.putInt(position + 16, trade.getQuantity());
+        chunk.put(position + 20, (byte) trade.getType().ordinal());
+        for (int i = 0; i < symbol.length; i++) {
+            chunk.put(position + 22 + i, symbol[i]);
+        }
+        chunk.put(position + 21, (byte) symbol.length);
+        chunk.position(position + RECORD_SIZE);
+        dirty = true;
+    }
+
+    private void nextChunk() {
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            chunk.force();
+        }
+        chunkPosition += chunkSize;
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkPosition, chunkSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
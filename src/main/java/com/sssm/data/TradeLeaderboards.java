@@ -0,0 +1,92 @@
+package com.sssm.data;
+
+import com.sssm.domain.LeaderboardEntry;
+import com.sssm.domain.LeaderboardMetric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Symbols ranked by traded volume, notional and trade count over the VWSP window, one {@link Leaderboard} per
+ * metric. The trade windows push their totals in as trades are stored and expire, so reading the top n symbols
+ * does not depend on how many symbols trade.
+ * Writers only publish the latest totals of their symbol and queue the symbol once until it is applied, so stores
+ * for different symbols never contend on the leaderboards; the queued totals are applied to the heaps in a batch
+ * on the next read.
+ */
+public class TradeLeaderboards {
+
+    private final SymbolTable symbolTable;
+    private final Leaderboard[] leaderboards = new Leaderboard[LeaderboardMetric.values().length];
+    private final Queue<SymbolTotals> changedTotals = new ConcurrentLinkedQueue<>();
+
+    public TradeLeaderboards(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+        for (int i = 0; i < leaderboards.length; i++) {
+            leaderboards[i] = new Leaderboard();
+        }
+    }
+
+    public TradeWindowListener listener(int symbolId) {
+        SymbolTotals symbolTotals = new SymbolTotals(symbolId);
+        return (volume, notional, tradeCount) -> {
+            symbolTotals.totals = new Totals(volume, notional, tradeCount);
+            if (!symbolTotals.queued.get() && symbolTotals.queued.compareAndSet(false, true)) {
+                changedTotals.add(symbolTotals);
+            }
+        };
+    }
+
+    public synchronized List<LeaderboardEntry> getTop(LeaderboardMetric metric, int count) {
+        applyChangedTotals();
+        Leaderboard leaderboard = leaderboards[metric.ordinal()];
+        int[] symbolIds = leaderboard.top(count);
+        List<LeaderboardEntry> entries = new ArrayList<>(symbolIds.length);
+        for (int symbolId : symbolIds) {
+            entries.add(new LeaderboardEntry(symbolTable.getSymbol(symbolId), leaderboard.getValue(symbolId)));
+        }
+        return entries;
+    }
+
+    /**
+     * Applies the totals queued since the last call, also called by the expiry task so the queue stays short.
+     */
+    public synchronized void applyChangedTotals() {
+        SymbolTotals symbolTotals;
+        while ((symbolTotals = changedTotals.poll()) != null) {
+            // Cleared before reading, a write racing with this read queues the symbol again
+            symbolTotals.queued.set(false);
+            Totals totals = symbolTotals.totals;
+            leaderboards[LeaderboardMetric.VOLUME.ordinal()].update(symbolTotals.symbolId, totals.volume);
+            leaderboards[LeaderboardMetric.NOTIONAL.ordinal()].update(symbolTotals.symbolId, totals.notional);
+            leaderboards[LeaderboardMetric.TRADE_COUNT.ordinal()].update(symbolTotals.symbolId, totals.tradeCount);
+        }
+    }
+
+    private static final class SymbolTotals {
+
+        private final int symbolId;
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile Totals totals;
+
+        private SymbolTotals(int symbolId) {
+            this.symbolId = symbolId;
+        }
+    }
+
+    private static final class Totals {
+
+        private final long volume;
+        private final double notional;
+        private final int tradeCount;
+
+        private Totals(long volume, double notional, int tradeCount) {
+            this.volume = volume;
+            this.notional = notional;
+            this.tradeCount = tradeCount;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.sssm.data;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time ordered ring buffer of the trades of one stock, expired trades are dropped from the head on every access.
+ * Trades are stored column-wise in parallel primitive arrays, and running sums of price * quantity and quantity
+ * are kept in step with the buffer so the VWSP is read in O(1).
+ * Trades are retained for a history that may be longer than the VWSP window, the running sums only cover the
+ * trades from windowStart on. Trades are stamped before the window lock is taken, so concurrent writers can hand
+ * them over slightly out of order; a trade older than the newest one is stored at the newest timestamp, which keeps
+ * the buffer in timestamp order for eviction and for the binary search of time range queries.
+ * A {@link TradeWindowListener} is told the window totals whenever trades are stored or drop out of the window.
+ * The last VWSP is cached with the version it was read at, storing a trade bumps the version and the cached value
+ * also goes stale once the oldest trade it covers leaves the window, so readers can use it without locking.
+ */
+public class TradeWindow {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+
+    private final String symbol;
+    private final long windowNanos;
+    private final long historyNanos;
+    private final TradeWindowListener listener;
+    private long[] timestamps = new long[MIN_CAPACITY];
+    private double[] prices = new double[MIN_CAPACITY];
+    private int[] quantities = new int[MIN_CAPACITY];
+    private byte[] types = new byte[MIN_CAPACITY];
+    private int head;
+    private int size;
+    private int windowStart;
+    private double priceQuantitySum;
+    private long quantitySum;
+    private long newestTimestampNanos = Long.MIN_VALUE;
+    private volatile long version;
+    private volatile CachedValue cachedVolumeWeightedStockPrice;
+
+    public TradeWindow(String symbol, Duration window) {
+        this(symbol, window, window);
+    }
+
+    public TradeWindow(String symbol, Duration window, Duration history) {
+        this(symbol, window, history, null);
+    }
+
+    public TradeWindow(String symbol, Duration window, Duration history, TradeWindowListener listener) {
+        this.symbol = symbol;
+        this.windowNanos = window.toNanos();
+        this.historyNanos = Math.max(windowNanos, history.toNanos());
+        this.listener = listener;
+    }
+
+    public synchronized void add(Trade trade) {
+        evictExpired(trade.getTradeTimestampNanos());
+        append(trade);
+        version++;
+        windowChanged();
+    }
+
+    public synchronized void addAll(List<Trade> tradeList) {
+        evictExpired(tradeList.get(0).getTradeTimestampNanos());
+        for (Trade trade : tradeList) {
+            append(trade);
+        }
+        version++;
+        windowChanged();
+    }
+
+    /**
+     * Stores the trades that are not older than the newest stored trade or the trade before them in the list, in one
+     * step so no other trade can be stored in between, and returns them. Used for trades that keep their own
+     * timestamps, which must not be restamped.
+     */
+    public synchronized List<Trade> addAllInOrder(List<Trade> tradeList) {
+        List<Trade> ordered = tradeList;
+        long last = newestTimestampNanos;
+        for (int i = 0; i < tradeList.size(); i++) {
+            Trade trade = tradeList.get(i);
+            if (trade.getTradeTimestampNanos() < last) {
+                if (ordered == tradeList) ordered = new ArrayList<>(tradeList.subList(0, i));
+            } else {
+                last = trade.getTradeTimestampNanos();
+                if (ordered != tradeList) ordered.add(trade);
+            }
+        }
+        if (!ordered.isEmpty()) {
+            addAll(ordered);
+        }
+        return ordered;
+    }
+
+    public synchronized double getVolumeWeightedStockPrice(long nowNanos) {
+        expire(nowNanos);
+        double volumeWeightedStockPrice = quantitySum > 0 ? priceQuantitySum / quantitySum : 0.0;
+        long expiresAtNanos = windowStart < size ? timestamps[(head + windowStart) & (timestamps.length - 1)] + windowNanos : CachedValue.NEVER;
+        cachedVolumeWeightedStockPrice = new CachedValue(version, volumeWeightedStockPrice, expiresAtNanos);
+        return volumeWeightedStockPrice;
+    }
+
+    /**
+     * The VWSP cached by the last {@link #getVolumeWeightedStockPrice(long)} if it is still current, else null.
+     */
+    public CachedValue getCachedVolumeWeightedStockPrice(long nowNanos) {
+        CachedValue cached = cachedVolumeWeightedStockPrice;
+        return cached != null && cached.isValid(version, nowNanos) ? cached : null;
+    }
+
+    public synchronized int getSize(long nowNanos) {
+        expire(nowNanos);
+        return size - windowStart;
+    }
+
+    public synchronized List<Trade> getTrades(long nowNanos) {
+        expire(nowNanos);
+        return toTrades(windowStart, size);
+    }
+
+    /**
+     * Trades from fromNanos (inclusive) to toNanos (exclusive) still held in the history.
+     */
+    public synchronized TradePage getTrades(long fromNanos, long toNanos, int offset, int limit, long nowNanos) {
+        expire(nowNanos);
+        int start = lowerBound(fromNanos);
+        int end = lowerBound(toNanos);
+        int total = Math.max(0, end - start);
+        int pageStart = start + Math.min(offset, total);
+        int pageEnd = (int) Math.min(end, (long) pageStart + limit);
+        return new TradePage(toTrades(pageStart, pageEnd), total, pageEnd < end ? pageEnd - start : null);
+    }
+
+    /**
+     * The timestamp of the newest trade ever stored, Long.MIN_VALUE before the first one.
+     */
+    public synchronized long getNewestTimestampNanos() {
+        return newestTimestampNanos;
+    }
+
+    private void append(Trade trade) {
+        if (size == timestamps.length) {
+            resize(timestamps.length << 1);
+        }
+        int tail = (head + size) & (timestamps.length - 1);
+        newestTimestampNanos = Math.max(newestTimestampNanos, trade.getTradeTimestampNanos());
+        timestamps[tail] = newestTimestampNanos;
+        prices[tail] = trade.getTradePrice();
+        quantities[tail] = trade.getQuantity();
+        types[tail] = (byte) trade.getType().ordinal();
+        size++;
+        priceQuantitySum += trade.getTradePrice() * trade.getQuantity();
+        quantitySum += trade.getQuantity();
+    }
+
+    private void expire(long nowNanos) {
+        if (evictExpired(nowNanos)) {
+            windowChanged();
+        }
+    }
+
+    private void windowChanged() {
+        if (listener != null) {
+            listener.windowChanged(quantitySum, priceQuantitySum, size - windowStart);
+        }
+    }
+
+    private boolean evictExpired(long nowNanos) {
+        long windowCutoff = nowNanos - windowNanos;
+        int mask = timestamps.length - 1;
+        int previousWindowStart = windowStart;
+        while (windowStart < size && timestamps[(head + windowStart) & mask] <= windowCutoff) {
+            int index = (head + windowStart) & mask;
+            priceQuantitySum -= prices[index] * quantities[index];
+            quantitySum -= quantities[index];
+            windowStart++;
+        }
+        if (windowStart == size) {
+            priceQuantitySum = 0.0;
+        }
+        boolean expired = windowStart != previousWindowStart;
+        long historyCutoff = nowNanos - historyNanos;
+        while (windowStart > 0 && timestamps[head] <= historyCutoff) {
+            head = (head + 1) & mask;
+            size--;
+            windowStart--;
+        }
+        if (timestamps.length > MIN_CAPACITY && size < timestamps.length >> 2) {
+            resize(timestamps.length >> 1);
+        }
+        return expired;
+    }
+
+    private void resize(int capacity) {
+        long[] resizedTimestamps = new long[capacity];
+        double[] resizedPrices = new double[capacity];
+        int[] resizedQuantities = new int[capacity];
+        byte[] resizedTypes = new byte[capacity];
+        int mask = timestamps.length - 1;
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & mask;
+            resizedTimestamps[i] = timestamps[index];
+            resizedPrices[i] = prices[index];
+            resizedQuantities[i] = quantities[index];
+            resizedTypes[i] = types[index];
+        }
+        timestamps = resizedTimestamps;
+        prices = resizedPrices;
+        quantities = resizedQuantities;
+        types = resizedTypes;
+        head = 0;
+    }
+
+    private int lowerBound(long epochNanos) {
+        int mask = timestamps.length - 1;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[(head + middle) & mask] < epochNanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Trade> toTrades(int start, int end) {
+        List<Trade> result = new ArrayList<>(Math.max(0, end - start));
+        int mask = timestamps.length - 1;
+        for (int i = start; i < end; i++) {
+            result.add(toTrade((head + i) & mask));
+        }
+        return result;
+    }
+
+    private Trade toTrade(int index) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(TRADE_TYPES[types[index]]);
+        trade.setTradePrice(prices[index]);
+        trade.setQuantity(quantities[index]);
+        trade.setTradeTimestampNanos(timestamps[index]);
+        return trade;
+    }
+}
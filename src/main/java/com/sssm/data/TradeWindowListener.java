@@ -0,0 +1,10 @@
+package com.sssm.data;
+
+/**
+ * Told the window totals of a stock whenever a {@link TradeWindow} stores or expires trades.
+ * Called while the window is locked, so it must not call back into the window.
+ */
+public interface TradeWindowListener {
+
+    void windowChanged(long volume, double notional, int tradeCount);
+}
@@ -0,0 +1,119 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class Bar {
+
+    @ApiModelProperty(value = "Start of the bar interval")
+    private LocalDateTime start;
+
+    @ApiModelProperty(value = "Price of the first trade in the interval")
+    private double open;
+
+    @ApiModelProperty(value = "Highest trade price in the interval")
+    private double high;
+
+    @ApiModelProperty(value = "Lowest trade price in the interval")
+    private double low;
+
+    @ApiModelProperty(value = "Price of the last trade in the interval")
+    private double close;
+
+    @ApiModelProperty(value = "Total quantity traded in the interval")
+    private long volume;
+
+    public Bar() {
+    }
+
+    public Bar(LocalDateTime start, double open, double high, double low, double close, long volume) {
+        this.start = start;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public void setOpen(double open) {
+        this.open = open;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public void setHigh(double high) {
+        this.high = high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public void setLow(double low) {
+        this.low = low;
+    }
+
+    public double getClose() {
+        return close;
+    }
+
+    public void setClose(double close) {
+        this.close = close;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    public void setVolume(long volume) {
+        this.volume = volume;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Bar bar = (Bar) o;
+
+        if (Double.compare(bar.open, open) != 0) return false;
+        if (Double.compare(bar.high, high) != 0) return false;
+        if (Double.compare(bar.low, low) != 0) return false;
+        if (Double.compare(bar.close, close) != 0) return false;
+        if (volume != bar.volume) return false;
+        return Objects.equals(start, bar.start);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, open, high, low, close, volume);
+    }
+
+    @Override
+    public String toString() {
+        return "Bar{" +
+                "start=" + start +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", volume=" + volume +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.sssm.domain;
+
+import java.time.Duration;
+
+public enum BarResolution {
+
+    ONE_SECOND("1s", Duration.ofSeconds(1)),
+    ONE_MINUTE("1m", Duration.ofMinutes(1)),
+    FIVE_MINUTES("5m", Duration.ofMinutes(5));
+
+    private final String label;
+    private final Duration duration;
+
+    BarResolution(String label, Duration duration) {
+        this.label = label;
+        this.duration = duration;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public static BarResolution fromLabel(String label) {
+        for (BarResolution resolution : values()) {
+            if (resolution.label.equals(label)) {
+                return resolution;
+            }
+        }
+        return null;
+    }
+}
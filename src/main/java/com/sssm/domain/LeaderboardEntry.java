@@ -0,0 +1,62 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Objects;
+
+public class LeaderboardEntry {
+
+    @ApiModelProperty(value = "Stock symbol")
+    private String symbol;
+
+    @ApiModelProperty(value = "Traded volume, notional or trade count of the stock in the last minutes")
+    private double value;
+
+    public LeaderboardEntry() {
+    }
+
+    public LeaderboardEntry(String symbol, double value) {
+        this.symbol = symbol;
+        this.value = value;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        LeaderboardEntry that = (LeaderboardEntry) o;
+
+        if (Double.compare(that.value, value) != 0) return false;
+        return Objects.equals(symbol, that.symbol);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(symbol, value);
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderboardEntry{" +
+                "symbol='" + symbol + '\'' +
+                ", value=" + value +
+                '}';
+    }
+}
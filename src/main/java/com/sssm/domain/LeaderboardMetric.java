@@ -0,0 +1,27 @@
+package com.sssm.domain;
+
+public enum LeaderboardMetric {
+
+    VOLUME("volume"),
+    NOTIONAL("notional"),
+    TRADE_COUNT("count");
+
+    private final String label;
+
+    LeaderboardMetric(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static LeaderboardMetric fromLabel(String label) {
+        for (LeaderboardMetric metric : values()) {
+            if (metric.label.equals(label)) {
+                return metric;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class LogPriceSum {
+
+    @ApiModelProperty(value = "Sum of the natural logarithms of the recorded trade prices")
+    private double logPriceSum;
+
+    @ApiModelProperty(value = "Number of recorded trades")
+    private long tradeCount;
+
+    public LogPriceSum() {
+    }
+
+    public LogPriceSum(double logPriceSum, long tradeCount) {
+        this.logPriceSum = logPriceSum;
+        this.tradeCount = tradeCount;
+    }
+
+    public double getLogPriceSum() {
+        return logPriceSum;
+    }
+
+    public void setLogPriceSum(double logPriceSum) {
+        this.logPriceSum = logPriceSum;
+    }
+
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public void setTradeCount(long tradeCount) {
+        this.tradeCount = tradeCount;
+    }
+
+    public LogPriceSum add(LogPriceSum other) {
+        return new LogPriceSum(logPriceSum + other.logPriceSum, tradeCount + other.tradeCount);
+    }
+
+    /**
+     * The geometric mean of the summed prices, 0 without trades.
+     */
+    public double getGeometricMean() {
+        return tradeCount > 0 ? Math.exp(logPriceSum / tradeCount) : 0.0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        LogPriceSum that = (LogPriceSum) o;
+
+        if (Double.compare(that.logPriceSum, logPriceSum) != 0) return false;
+        return tradeCount == that.tradeCount;
+    }
+
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        temp = Double.doubleToLongBits(logPriceSum);
+        result = (int) (temp ^ (temp >>> 32));
+        result = 31 * result + (int) (tradeCount ^ (tradeCount >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "LogPriceSum{" +
+                "logPriceSum=" + logPriceSum +
+                ", tradeCount=" + tradeCount +
+                '}';
+    }
+}
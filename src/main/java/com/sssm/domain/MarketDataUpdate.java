@@ -0,0 +1,62 @@
+package com.sssm.domain;
+
+import java.util.Objects;
+
+public class MarketDataUpdate {
+
+    private String symbol;
+    private double value;
+
+    public MarketDataUpdate() {
+    }
+
+    public MarketDataUpdate(String symbol, double value) {
+        this.symbol = symbol;
+        this.value = value;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MarketDataUpdate that = (MarketDataUpdate) o;
+
+        if (Double.compare(that.value, value) != 0) return false;
+        return Objects.equals(symbol, that.symbol);
+    }
+
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        result = symbol != null ? symbol.hashCode() : 0;
+        temp = Double.doubleToLongBits(value);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "MarketDataUpdate{" +
+                "symbol='" + symbol + '\'' +
+                ", value=" + value +
+                '}';
+    }
+}
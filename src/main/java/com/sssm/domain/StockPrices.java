@@ -0,0 +1,65 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class StockPrices {
+
+    @ApiModelProperty(value = "Stock symbol")
+    private String symbol;
+
+    @ApiModelProperty(value = "Prices to calculate the dividend yield and P/E ratio for")
+    private double[] prices;
+
+    public StockPrices() {
+    }
+
+    public StockPrices(String symbol, double... prices) {
+        this.symbol = symbol;
+        this.prices = prices;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public double[] getPrices() {
+        return prices;
+    }
+
+    public void setPrices(double[] prices) {
+        this.prices = prices;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StockPrices that = (StockPrices) o;
+
+        if (!Objects.equals(symbol, that.symbol)) return false;
+        return Arrays.equals(prices, that.prices);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = symbol != null ? symbol.hashCode() : 0;
+        result = 31 * result + Arrays.hashCode(prices);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StockPrices{" +
+                "symbol='" + symbol + '\'' +
+                ", prices=" + Arrays.toString(prices) +
+                '}';
+    }
+}
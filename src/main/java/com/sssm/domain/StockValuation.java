@@ -0,0 +1,80 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class StockValuation {
+
+    @ApiModelProperty(value = "Stock symbol")
+    private String symbol;
+
+    @ApiModelProperty(value = "Dividend yield for each requested price, in request order")
+    private double[] dividendYields;
+
+    @ApiModelProperty(value = "P/E ratio for each requested price, in request order")
+    private double[] peRatios;
+
+    public StockValuation() {
+    }
+
+    public StockValuation(String symbol, double[] dividendYields, double[] peRatios) {
+        this.symbol = symbol;
+        this.dividendYields = dividendYields;
+        this.peRatios = peRatios;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public double[] getDividendYields() {
+        return dividendYields;
+    }
+
+    public void setDividendYields(double[] dividendYields) {
+        this.dividendYields = dividendYields;
+    }
+
+    public double[] getPeRatios() {
+        return peRatios;
+    }
+
+    public void setPeRatios(double[] peRatios) {
+        this.peRatios = peRatios;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StockValuation that = (StockValuation) o;
+
+        if (!Objects.equals(symbol, that.symbol)) return false;
+        if (!Arrays.equals(dividendYields, that.dividendYields)) return false;
+        return Arrays.equals(peRatios, that.peRatios);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = symbol != null ? symbol.hashCode() : 0;
+        result = 31 * result + Arrays.hashCode(dividendYields);
+        result = 31 * result + Arrays.hashCode(peRatios);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StockValuation{" +
+                "symbol='" + symbol + '\'' +
+                ", dividendYields=" + Arrays.toString(dividendYields) +
+                ", peRatios=" + Arrays.toString(peRatios) +
+                '}';
+    }
+}
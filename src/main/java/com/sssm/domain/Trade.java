@@ -2,6 +2,7 @@ package com.sssm.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sssm.clock.TradeClock;
 import io.swagger.annotations.ApiModelProperty;
 
 import java.time.LocalDateTime;
@@ -20,8 +21,7 @@ public class Trade {
     @ApiModelProperty(required = true, value = "Trade quantity")
     private int quantity;
 
-    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
-    private LocalDateTime tradeTimestamp;
+    private long tradeTimestampNanos;
 
     public Trade() {
     }
@@ -58,13 +58,25 @@ public class Trade {
         this.quantity = quantity;
     }
 
+    /**
+     * Epoch nanos the trade was stamped with by the {@link TradeClock}, 0 if it has not been recorded yet.
+     */
     @JsonIgnore
+    public long getTradeTimestampNanos() {
+        return tradeTimestampNanos;
+    }
+
+    public void setTradeTimestampNanos(long tradeTimestampNanos) {
+        this.tradeTimestampNanos = tradeTimestampNanos;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public LocalDateTime getTradeTimestamp() {
-        return tradeTimestamp;
+        return tradeTimestampNanos != 0 ? TradeClock.toLocalDateTime(tradeTimestampNanos) : null;
     }
 
     public void setTradeTimestamp(LocalDateTime tradeTimestamp) {
-        this.tradeTimestamp = tradeTimestamp;
+        this.tradeTimestampNanos = tradeTimestamp != null ? TradeClock.toEpochNanos(tradeTimestamp) : 0;
     }
 
     @Override
@@ -78,7 +90,7 @@ public class Trade {
         if (quantity != trade.quantity) return false;
         if (!Objects.equals(symbol, trade.symbol)) return false;
         if (type != trade.type) return false;
-        return Objects.equals(tradeTimestamp, trade.tradeTimestamp);
+        return tradeTimestampNanos == trade.tradeTimestampNanos;
     }
 
     @Override
@@ -90,7 +102,7 @@ public class Trade {
         temp = Double.doubleToLongBits(tradePrice);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + quantity;
-        result = 31 * result + (tradeTimestamp != null ? tradeTimestamp.hashCode() : 0);
+        result = 31 * result + (int) (tradeTimestampNanos ^ (tradeTimestampNanos >>> 32));
         return result;
     }
 
@@ -101,7 +113,7 @@ public class Trade {
                 ", type=" + type +
                 ", tradePrice=" + tradePrice +
                 ", quantity=" + quantity +
-                ", tradeTimestamp=" + tradeTimestamp +
+                ", tradeTimestamp=" + getTradeTimestamp() +
                 '}';
     }
 }
@@ -0,0 +1,80 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+public class TradePage {
+
+    @ApiModelProperty(value = "Trades of this page in timestamp order")
+    private List<Trade> trades;
+
+    @ApiModelProperty(value = "Number of trades in the whole time range")
+    private int total;
+
+    @ApiModelProperty(value = "Offset of the next page, absent on the last page")
+    private Integer nextOffset;
+
+    public TradePage() {
+    }
+
+    public TradePage(List<Trade> trades, int total, Integer nextOffset) {
+        this.trades = trades;
+        this.total = total;
+        this.nextOffset = nextOffset;
+    }
+
+    public List<Trade> getTrades() {
+        return trades;
+    }
+
+    public void setTrades(List<Trade> trades) {
+        this.trades = trades;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public Integer getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(Integer nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TradePage tradePage = (TradePage) o;
+
+        if (total != tradePage.total) return false;
+        if (!Objects.equals(trades, tradePage.trades)) return false;
+        return Objects.equals(nextOffset, tradePage.nextOffset);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = trades != null ? trades.hashCode() : 0;
+        result = 31 * result + total;
+        result = 31 * result + (nextOffset != null ? nextOffset.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TradePage{" +
+                "trades=" + trades +
+                ", total=" + total +
+                ", nextOffset=" + nextOffset +
+                '}';
+    }
+}
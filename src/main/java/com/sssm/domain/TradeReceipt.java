@@ -0,0 +1,64 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Objects;
+
+public class TradeReceipt {
+
+    @ApiModelProperty(value = "Sequence number of the trade in the ingestion pipeline")
+    private long sequence;
+
+    @ApiModelProperty(value = "The trade as accepted")
+    private Trade trade;
+
+    public TradeReceipt() {
+    }
+
+    public TradeReceipt(long sequence, Trade trade) {
+        this.sequence = sequence;
+        this.trade = trade;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Trade getTrade() {
+        return trade;
+    }
+
+    public void setTrade(Trade trade) {
+        this.trade = trade;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TradeReceipt that = (TradeReceipt) o;
+
+        if (sequence != that.sequence) return false;
+        return Objects.equals(trade, that.trade);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (sequence ^ (sequence >>> 32));
+        result = 31 * result + (trade != null ? trade.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeReceipt{" +
+                "sequence=" + sequence +
+                ", trade=" + trade +
+                '}';
+    }
+}
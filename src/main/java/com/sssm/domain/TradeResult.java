@@ -0,0 +1,79 @@
+package com.sssm.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Objects;
+
+public class TradeResult {
+
+    @ApiModelProperty(value = "Trade status: RECORDED|INVALID|NOT_FOUND|UNAVAILABLE")
+    private TradeStatus status;
+
+    @ApiModelProperty(value = "Reason the trade was rejected")
+    private String message;
+
+    @ApiModelProperty(value = "The trade as recorded or as received if rejected")
+    private Trade trade;
+
+    public TradeResult() {
+    }
+
+    public TradeResult(TradeStatus status, String message, Trade trade) {
+        this.status = status;
+        this.message = message;
+        this.trade = trade;
+    }
+
+    public TradeStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TradeStatus status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Trade getTrade() {
+        return trade;
+    }
+
+    public void setTrade(Trade trade) {
+        this.trade = trade;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TradeResult that = (TradeResult) o;
+
+        if (status != that.status) return false;
+        if (!Objects.equals(message, that.message)) return false;
+        return Objects.equals(trade, that.trade);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = status != null ? status.hashCode() : 0;
+        result = 31 * result + (message != null ? message.hashCode() : 0);
+        result = 31 * result + (trade != null ? trade.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeResult{" +
+                "status=" + status +
+                ", message='" + message + '\'' +
+                ", trade=" + trade +
+                '}';
+    }
+}
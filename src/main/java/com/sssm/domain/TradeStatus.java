@@ -0,0 +1,5 @@
+package com.sssm.domain;
+
+public enum TradeStatus {
+    RECORDED, INVALID, NOT_FOUND, UNAVAILABLE
+}
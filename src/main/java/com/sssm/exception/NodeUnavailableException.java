@@ -0,0 +1,7 @@
+package com.sssm.exception;
+
+public class NodeUnavailableException extends RuntimeException {
+    public NodeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.sssm.exception;
+
+public class PipelineDisabledException extends RuntimeException {
+    public PipelineDisabledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,535 @@
+package com.sssm.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sssm.clock.TradeClock;
+import com.sssm.data.StockTable;
+import com.sssm.data.SymbolTable;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import com.sssm.metrics.TradeMetrics;
+import com.sssm.repository.StockRepository;
+import com.sssm.repository.TradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Bulk import of historical trades from an NDJSON or CSV file, used to warm a new instance.
+ * The file is memory-mapped in chunks ending on a line break. Worker threads parse and validate the chunks in
+ * parallel while the calling thread stores them in file order, with at most two chunks per worker held in memory.
+ * Trades keep the timestamps of the file, which must therefore be in timestamp order: a trade older than the
+ * previous trade of the same stock, or than the newest trade already stored for it by a journal replay, is rejected.
+ * The check and the store are one step per stock window. The import runs while the application starts, before it
+ * takes live trades, whose current timestamps would make every historical trade of their stock out of order.
+ * <pre>
+ * NDJSON: {"symbol":"TEA","type":"BUY","tradePrice":100.0,"quantity":10,"tradeTimestamp":"2022-02-01T10:00:00"}
+ * CSV:    symbol,type,price,quantity,timestamp with an optional header line
+ * </pre>
+ * A file starting with '{' is read as NDJSON, anything else as CSV. Timestamps are ISO date times or epoch nanos.
+ * Valid trades of stocks not accepted by the symbol filter, owned by another cluster node, are skipped.
+ * When the trades are journaled, {@link #importFileOnce(Path, Path)} records the imported file so a restart replays
+ * its trades from the journal instead of importing them a second time.
+ */
+public class TradeFileImporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TradeFileImporter.class);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_LOGGED_REJECTIONS = 10;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final TradeRepository tradeRepository;
+    private final StockRepository stockRepository;
+    private final TradeMetrics tradeMetrics;
+    private final Predicate<String> symbolFilter;
+    private final int threads;
+    private final int chunkSize;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public TradeFileImporter(TradeRepository tradeRepository, StockRepository stockRepository, TradeMetrics tradeMetrics,
+                             Predicate<String> symbolFilter, int threads, int chunkSize) {
+        this.tradeRepository = tradeRepository;
+        this.stockRepository = stockRepository;
+        this.tradeMetrics = tradeMetrics;
+        this.symbolFilter = symbolFilter;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports the file unless the import log already lists it with the same size and modification time, and adds
+     * it to the log once imported. Returns null for a file imported before.
+     */
+    public TradeImportResult importFileOnce(Path path, Path importLog) throws IOException {
+        String entry = path.toAbsolutePath().normalize() + " " + Files.size(path) + " "
+                + Files.getLastModifiedTime(path).toMillis();
+        if (Files.exists(importLog) && Files.readAllLines(importLog, StandardCharsets.UTF_8).contains(entry)) {
+            LOGGER.info("Skipping the import of {}, its trades are already in the trade journal.", path);
+            return null;
+        }
+        TradeImportResult result = importFile(path);
+        Files.write(importLog, List.of(entry), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return result;
+    }
+
+    public TradeImportResult importFile(Path path) throws IOException {
+        LOGGER.info("Importing trades from {} with {} threads.", path, threads);
+        long start = System.nanoTime();
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "trade-import-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            boolean json = isJson(channel);
+            StockTable stockTable = stockRepository.getStockTable();
+            Queue<Future<ParsedChunk>> pending = new ArrayDeque<>();
+            long offset = 0;
+            long stored = 0;
+            long imported = 0;
+            long rejected = 0;
+            long skipped = 0;
+            int loggedRejections = 0;
+            long lastProgress = start;
+            while (offset < size || !pending.isEmpty()) {
+                while (offset < size && pending.size() < 2 * threads) {
+                    long end = chunkEnd(channel, offset, size);
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, end - offset);
+                    long chunkOffset = offset;
+                    pending.add(workers.submit(() -> parse(buffer, chunkOffset, json, stockTable)));
+                    offset = end;
+                }
+                ParsedChunk chunk = await(pending.remove());
+                for (String rejection : chunk.rejections) {
+                    if (loggedRejections++ < MAX_LOGGED_REJECTIONS) LOGGER.warn("Skipped trade {}", rejection);
+                }
+                int chunkImported = store(chunk);
+                rejected += chunk.trades - chunk.skipped - chunkImported;
+                skipped += chunk.skipped;
+                imported += chunkImported;
+                stored += chunk.bytes;
+                tradeMetrics.tradesRecorded(chunkImported);
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    LOGGER.info("Imported {} trades, rejected {}, {}% of the file read.", imported, rejected,
+                            size > 0 ? stored * 100 / size : 100);
+                    lastProgress = now;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            LOGGER.info("Imported {} trades, rejected {} and skipped {} from {} in {} ms ({} trades/s).", imported,
+                    rejected, skipped, path, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    elapsed > 0 ? imported * 1_000_000_000L / elapsed : imported);
+            return new TradeImportResult(imported, rejected, size, elapsed);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static boolean isJson(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        channel.read(buffer, 0);
+        for (int i = 0; i < buffer.position(); i++) {
+            byte b = buffer.get(i);
+            if (!Character.isWhitespace(b)) {
+                return b == '{';
+            }
+        }
+        return false;
+    }
+
+    private long chunkEnd(FileChannel channel, long offset, long size) throws IOException {
+        long position = offset + chunkSize;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing trades.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse trades.", e.getCause());
+        }
+    }
+
+    /**
+     * Stores the trades of a chunk a stock at a time, dropping the trades older than the last stored trade of
+     * their stock. Returns the number of trades stored.
+     */
+    private int store(ParsedChunk chunk) {
+        int storedTrades = 0;
+        for (Map.Entry<String, List<Trade>> entry : chunk.tradesBySymbol.entrySet()) {
+            List<Trade> trades = entry.getValue();
+            int stored = tradeRepository.saveAllInOrder(entry.getKey(), trades).size();
+            for (int i = stored; i < trades.size(); i++) {
+                tradeMetrics.tradeRejected("out_of_order");
+            }
+            storedTrades += stored;
+        }
+        return storedTrades;
+    }
+
+    private ParsedChunk parse(ByteBuffer buffer, long chunkOffset, boolean json, StockTable stockTable) {
+        ParsedChunk chunk = new ParsedChunk(buffer.limit());
+        LineParser line = new LineParser(buffer);
+        int position = 0;
+        while (position < buffer.limit()) {
+            int end = position;
+            while (end < buffer.limit() && buffer.get(end) != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > position && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            line.reset(position, end);
+            boolean header = !json && chunkOffset == 0 && position == 0 && line.startsWith("symbol");
+            if (!header && !line.isBlank()) {
+                chunk.trades++;
+                try {
+                    Trade trade = json ? line.parseJson() : line.parseCsv();
+                    validate(trade, stockTable);
+                    if (symbolFilter.test(trade.getSymbol())) {
+                        chunk.add(trade);
+                    } else {
+                        chunk.skipped++;
+                    }
+                } catch (RejectedTradeException exception) {
+                    tradeMetrics.tradeRejected(exception.reason);
+                    chunk.reject("at byte " + (chunkOffset + position) + ": " + exception.getMessage());
+                }
+            }
+            position = next;
+        }
+        return chunk;
+    }
+
+    private static void validate(Trade trade, StockTable stockTable) {
+        if (trade.getQuantity() <= 0)
+            throw new RejectedTradeException("quantity", "Please enter a valid quantity to record the trade.");
+        if (!Double.isFinite(trade.getTradePrice()) || trade.getTradePrice() <= 0.0)
+            throw new RejectedTradeException("price", "Please enter a valid trade price to record the trade.");
+        if (trade.getType() == null)
+            throw new RejectedTradeException("type", "Trade type can only be BUY or SELL.");
+        if (trade.getSymbol() == null || trade.getSymbol().isEmpty())
+            throw new RejectedTradeException("symbol", "Stock symbol can not be empty.");
+        if (stockTable.find(trade.getSymbol()) == SymbolTable.UNKNOWN)
+            throw new RejectedTradeException("unknown_stock", "Stock with symbol: " + trade.getSymbol() + " not found.");
+        if (trade.getTradeTimestampNanos() == 0)
+            throw new RejectedTradeException("timestamp", "Please enter the timestamp of the trade.");
+    }
+
+    private static final class ParsedChunk {
+
+        private final int bytes;
+        private final Map<String, List<Trade>> tradesBySymbol = new LinkedHashMap<>();
+        private final List<String> rejections = new ArrayList<>();
+        private int trades;
+        private int skipped;
+
+        private ParsedChunk(int bytes) {
+            this.bytes = bytes;
+        }
+
+        private void add(Trade trade) {
+            tradesBySymbol.computeIfAbsent(trade.getSymbol(), key -> new ArrayList<>()).add(trade);
+        }
+
+        private void reject(String rejection) {
+            if (rejections.size() < MAX_LOGGED_REJECTIONS) rejections.add(rejection);
+        }
+    }
+
+    private static final class RejectedTradeException extends RuntimeException {
+
+        private final String reason;
+
+        private RejectedTradeException(String reason, String message) {
+            super(message, null, false, false);
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * Reads the fields of one line straight from the mapped chunk. CSV numbers are parsed without building a string,
+     * NDJSON lines are copied to a reused array for the Jackson streaming parser.
+     */
+    private final class LineParser {
+
+        private final ByteBuffer buffer;
+        private final ByteBuffer view;
+        private byte[] scratch = new byte[256];
+        private int position;
+        private int end;
+
+        private LineParser(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.view = buffer.duplicate();
+        }
+
+        private void reset(int start, int end) {
+            this.position = start;
+            this.end = end;
+        }
+
+        private boolean startsWith(String prefix) {
+            if (end - position < prefix.length()) return false;
+            for (int i = 0; i < prefix.length(); i++) {
+                if (Character.toLowerCase(buffer.get(position + i)) != prefix.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private boolean isBlank() {
+            for (int i = position; i < end; i++) {
+                if (!Character.isWhitespace(buffer.get(i))) return false;
+            }
+            return true;
+        }
+
+        private Trade parseCsv() {
+            Trade trade = new Trade();
+            trade.setSymbol(nextText());
+            trade.setType(nextType());
+            trade.setTradePrice(nextDouble());
+            trade.setQuantity(nextInt());
+            trade.setTradeTimestampNanos(nextTimestamp());
+            return trade;
+        }
+
+        private Trade parseJson() {
+            int length = end - position;
+            if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length << 1)];
+            copy(position, scratch, length);
+            Trade trade = new Trade();
+            try (JsonParser parser = jsonFactory.createParser(scratch, 0, length)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) throw invalidFormat();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken token = parser.nextToken();
+                    switch (field) {
+                        case "symbol":
+                            trade.setSymbol(parser.getValueAsString());
+                            break;
+                        case "type":
+                            trade.setType(toType(parser.getValueAsString()));
+                            break;
+                        case "tradePrice":
+                            if (!token.isNumeric()) throw invalidFormat();
+                            trade.setTradePrice(parser.getDoubleValue());
+                            break;
+                        case "quantity":
+                            if (token != JsonToken.VALUE_NUMBER_INT) throw invalidFormat();
+                            trade.setQuantity(parser.getIntValue());
+                            break;
+                        case "tradeTimestamp":
+                            trade.setTradeTimestampNanos(token == JsonToken.VALUE_NUMBER_INT
+                                    ? parser.getLongValue() : toTimestamp(parser.getValueAsString()));
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+                return trade;
+            } catch (JsonProcessingException exception) {
+                throw invalidFormat();
+            } catch (IOException exception) {
+                throw new RejectedTradeException("format", exception.getMessage());
+            }
+        }
+
+        private int fieldEnd() {
+            int fieldEnd = position;
+            while (fieldEnd < end && buffer.get(fieldEnd) != ',') {
+                fieldEnd++;
+            }
+            return fieldEnd;
+        }
+
+        private void skipSpaces() {
+            while (position < end && buffer.get(position) == ' ') {
+                position++;
+            }
+        }
+
+        private String nextText() {
+            skipSpaces();
+            int fieldEnd = fieldEnd();
+            int textEnd = fieldEnd;
+            while (textEnd > position && buffer.get(textEnd - 1) == ' ') {
+                textEnd--;
+            }
+            byte[] bytes = new byte[textEnd - position];
+            copy(position, bytes, bytes.length);
+            position = Math.min(fieldEnd + 1, end);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        private TradeType nextType() {
+            skipSpaces();
+            int fieldEnd = fieldEnd();
+            TradeType type = null;
+            if (matches("BUY", fieldEnd)) {
+                type = TradeType.BUY;
+            } else if (matches("SELL", fieldEnd)) {
+                type = TradeType.SELL;
+            }
+            position = Math.min(fieldEnd + 1, end);
+            return type;
+        }
+
+        private boolean matches(String text, int fieldEnd) {
+            int textEnd = fieldEnd;
+            while (textEnd > position && buffer.get(textEnd - 1) == ' ') {
+                textEnd--;
+            }
+            if (textEnd - position != text.length()) return false;
+            for (int i = 0; i < text.length(); i++) {
+                if (buffer.get(position + i) != text.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Plain decimals of up to 15 digits are exact as a long, and dividing by an exact power of ten rounds
+         * correctly, anything else falls back to {@link Double#parseDouble}.
+         */
+        private double nextDouble() {
+            skipSpaces();
+            int start = position;
+            int fieldEnd = fieldEnd();
+            long mantissa = 0;
+            int digits = 0;
+            int scale = -1;
+            int i = start;
+            for (; i < fieldEnd; i++) {
+                byte b = buffer.get(i);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (scale >= 0) scale++;
+                } else if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    break;
+                }
+            }
+            position = Math.min(fieldEnd + 1, end);
+            if (i == fieldEnd && digits > 0 && digits <= MAX_FAST_DIGITS) {
+                return mantissa / POWERS_OF_TEN[Math.max(scale, 0)];
+            }
+            try {
+                return Double.parseDouble(text(start, fieldEnd));
+            } catch (NumberFormatException exception) {
+                throw new RejectedTradeException("price", "Please enter a valid trade price to record the trade.");
+            }
+        }
+
+        private int nextInt() {
+            skipSpaces();
+            int fieldEnd = fieldEnd();
+            int textEnd = fieldEnd;
+            while (textEnd > position && buffer.get(textEnd - 1) == ' ') {
+                textEnd--;
+            }
+            long value = 0;
+            for (int i = position; i < textEnd; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9' || (value = value * 10 + (b - '0')) > Integer.MAX_VALUE)
+                    throw new RejectedTradeException("quantity", "Please enter a valid quantity to record the trade.");
+            }
+            position = Math.min(fieldEnd + 1, end);
+            return (int) value;
+        }
+
+        private long nextTimestamp() {
+            skipSpaces();
+            int start = position;
+            int textEnd = fieldEnd();
+            while (textEnd > start && buffer.get(textEnd - 1) == ' ') {
+                textEnd--;
+            }
+            position = end;
+            long nanos = 0;
+            for (int i = start; i < textEnd; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9' || nanos > (Long.MAX_VALUE - 9) / 10) {
+                    return toTimestamp(text(start, textEnd));
+                }
+                nanos = nanos * 10 + (b - '0');
+            }
+            return nanos;
+        }
+
+        private String text(int start, int textEnd) {
+            byte[] bytes = new byte[textEnd - start];
+            copy(start, bytes, bytes.length);
+            return new String(bytes, StandardCharsets.US_ASCII).trim();
+        }
+
+        private void copy(int start, byte[] bytes, int length) {
+            view.position(start);
+            view.get(bytes, 0, length);
+        }
+
+        private RejectedTradeException invalidFormat() {
+            return new RejectedTradeException("format", "Invalid trade line.");
+        }
+    }
+
+    private static TradeType toType(String type) {
+        return "BUY".equals(type) ? TradeType.BUY : "SELL".equals(type) ? TradeType.SELL : null;
+    }
+
+    private static long toTimestamp(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) return 0;
+        try {
+            return TradeClock.toEpochNanos(LocalDateTime.parse(timestamp));
+        } catch (DateTimeParseException exception) {
+            throw new RejectedTradeException("timestamp", "Invalid trade timestamp " + timestamp + ".");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sssm.ingest;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeResult;
+import com.sssm.domain.TradeType;
+import com.sssm.exception.InvalidDataException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary frames of the socket ingestion channel, all big-endian and prefixed with the int length of the body.
+ * <pre>
+ * trade frame: int length, int count, count * (byte symbolLength, symbol, byte type, double price, int quantity)
+ * ack frame:   int length, int count, count * (byte status)
+ * </pre>
+ * The type byte is the {@link TradeType} ordinal and the status byte the {@link com.sssm.domain.TradeStatus} ordinal.
+ * A frame with a NaN or infinite price is malformed and closes the connection like an invalid trade count.
+ */
+public final class TradeFrameCodec {
+
+    public static final int LENGTH_SIZE = Integer.BYTES;
+
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+
+    private TradeFrameCodec() {
+    }
+
+    public static List<Trade> decodeTrades(ByteBuffer body) {
+        int count = body.getInt();
+        if (count < 0 || count > body.remaining())
+            throw new InvalidDataException("Invalid trade count " + count + " in trade frame.");
+        List<Trade> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] symbol = new byte[body.get() & 0xFF];
+            body.get(symbol);
+            int type = body.get();
+            Trade trade = new Trade();
+            trade.setSymbol(new String(symbol, StandardCharsets.US_ASCII));
+            trade.setType(type >= 0 && type < TRADE_TYPES.length ? TRADE_TYPES[type] : null);
+            double price = body.getDouble();
+            if (!Double.isFinite(price)) throw new InvalidDataException("Invalid trade price " + price + " in trade frame.");
+            trade.setTradePrice(price);
+            trade.setQuantity(body.getInt());
+            trades.add(trade);
+        }
+        return trades;
+    }
+
+    public static ByteBuffer encodeTrades(List<Trade> trades) {
+        int length = Integer.BYTES;
+        for (Trade trade : trades) {
+            length += 1 + trade.getSymbol().length() + 1 + Double.BYTES + Integer.BYTES;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(LENGTH_SIZE + length);
+        frame.putInt(length);
+        frame.putInt(trades.size());
+        for (Trade trade : trades) {
+            byte[] symbol = trade.getSymbol().getBytes(StandardCharsets.US_ASCII);
+            frame.put((byte) symbol.length);
+            frame.put(symbol);
+            frame.put((byte) trade.getType().ordinal());
+            frame.putDouble(trade.getTradePrice());
+            frame.putInt(trade.getQuantity());
+        }
+        return frame.flip();
+    }
+
+    public static ByteBuffer encodeAck(List<TradeResult> tradeResults) {
+        ByteBuffer frame = ByteBuffer.allocate(LENGTH_SIZE + Integer.BYTES + tradeResults.size());
+        frame.putInt(Integer.BYTES + tradeResults.size());
+        frame.putInt(tradeResults.size());
+        for (TradeResult tradeResult : tradeResults) {
+            frame.put((byte) tradeResult.getStatus().ordinal());
+        }
+        return frame.flip();
+    }
+}
@@ -0,0 +1,42 @@
+package com.sssm.ingest;
+
+public class TradeImportResult {
+
+    private final long imported;
+    private final long rejected;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public TradeImportResult(long imported, long rejected, long bytes, long elapsedNanos) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeImportResult{" +
+                "imported=" + imported +
+                ", rejected=" + rejected +
+                ", bytes=" + bytes +
+                ", elapsedNanos=" + elapsedNanos +
+                '}';
+    }
+}
@@ -0,0 +1,230 @@
+package com.sssm.ingest;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeResult;
+import com.sssm.service.TradeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-lived TCP channel taking length-prefixed binary trade frames (see {@link TradeFrameCodec}).
+ * Each decoded frame is recorded as one batch through {@link TradeService#recordTrades} and answered with one ack
+ * frame. A connection stops being read while its frame is being recorded, so a client that outpaces the store
+ * is held back by TCP flow control rather than by buffering on the server.
+ */
+public class TradeIngestServer implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TradeIngestServer.class);
+
+    private final TradeService tradeService;
+    private final int maxFrameBytes;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService workers;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    public TradeIngestServer(TradeService tradeService, int port, int workerThreads, int maxFrameBytes) throws IOException {
+        this.tradeService = tradeService;
+        this.maxFrameBytes = maxFrameBytes;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "trade-ingest-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.selectorThread = new Thread(this::run, "trade-ingest-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        LOGGER.info("Trade ingestion channel listening on port {}.", getPort());
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isWritable()) {
+                            connection.write();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.error("Trade ingestion channel failed.", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer;
+        private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+        private SelectionKey key;
+        private boolean recording;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.readBuffer = ByteBuffer.allocate(TradeFrameCodec.LENGTH_SIZE + maxFrameBytes);
+        }
+
+        private void read() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    close();
+                    return;
+                }
+                dispatchFrame();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void dispatchFrame() {
+            readBuffer.flip();
+            if (readBuffer.remaining() < TradeFrameCodec.LENGTH_SIZE) {
+                readBuffer.compact();
+                return;
+            }
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length < 0 || length > maxFrameBytes) {
+                LOGGER.error("Closing trade ingestion connection, frame of {} bytes exceeds the limit of {}.", length, maxFrameBytes);
+                close();
+                return;
+            }
+            if (readBuffer.remaining() < TradeFrameCodec.LENGTH_SIZE + length) {
+                readBuffer.compact();
+                return;
+            }
+            readBuffer.position(readBuffer.position() + TradeFrameCodec.LENGTH_SIZE);
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readBuffer.get(body.array());
+            readBuffer.compact();
+            recording = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            workers.execute(() -> record(body));
+        }
+
+        private void record(ByteBuffer body) {
+            ByteBuffer ack;
+            try {
+                List<Trade> trades = TradeFrameCodec.decodeTrades(body);
+                List<TradeResult> tradeResults = trades.isEmpty() ? Collections.emptyList() : tradeService.recordTrades(trades);
+                ack = TradeFrameCodec.encodeAck(tradeResults);
+            } catch (RuntimeException e) {
+                LOGGER.error("Closing trade ingestion connection, unable to record trade frame.", e);
+                selectorTasks.add(this::close);
+                selector.wakeup();
+                return;
+            }
+            selectorTasks.add(() -> acknowledge(ack));
+            selector.wakeup();
+        }
+
+        private void acknowledge(ByteBuffer ack) {
+            if (!key.isValid()) {
+                return;
+            }
+            recording = false;
+            writeQueue.add(ack);
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            dispatchFrame();
+        }
+
+        private void write() {
+            try {
+                while (!writeQueue.isEmpty()) {
+                    ByteBuffer ack = writeQueue.peek();
+                    channel.write(ack);
+                    if (ack.hasRemaining()) {
+                        return;
+                    }
+                    writeQueue.poll();
+                }
+                int interestOps = recording ? 0 : SelectionKey.OP_READ;
+                key.interestOps(interestOps);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to close trade ingestion connection.", e);
+            }
+        }
+    }
+}
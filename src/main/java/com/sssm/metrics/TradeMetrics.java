@@ -0,0 +1,79 @@
+package com.sssm.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class TradeMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter recordedTrades;
+    private final Timer vwspCalculation;
+    private final Timer gbceCalculation;
+    private final Counter vwspCacheHits;
+    private final Counter vwspCacheMisses;
+    private final Counter gbceCacheHits;
+    private final Counter gbceCacheMisses;
+    private final ConcurrentHashMap<String, Counter> rejectedTrades = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TradeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.recordedTrades = Counter.builder("sssm.trades.recorded")
+                .description("Trades recorded")
+                .register(meterRegistry);
+        this.vwspCalculation = Timer.builder("sssm.vwsp.calculation")
+                .description("Time spent calculating the Volume Weighted Stock Price")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.gbceCalculation = Timer.builder("sssm.gbce.calculation")
+                .description("Time spent calculating the GBCE All Share Index")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.vwspCacheHits = cacheCounter("vwsp", "hit");
+        this.vwspCacheMisses = cacheCounter("vwsp", "miss");
+        this.gbceCacheHits = cacheCounter("gbce", "hit");
+        this.gbceCacheMisses = cacheCounter("gbce", "miss");
+    }
+
+    private Counter cacheCounter(String value, String result) {
+        return Counter.builder("sssm.result.cache")
+                .description("VWSP and GBCE reads served from or missing the result cache")
+                .tag("value", value)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public void tradesRecorded(int count) {
+        recordedTrades.increment(count);
+    }
+
+    public void tradeRejected(String reason) {
+        rejectedTrades.computeIfAbsent(reason, key -> Counter.builder("sssm.trades.rejected")
+                .description("Trades rejected by reason")
+                .tag("reason", key)
+                .register(meterRegistry)).increment();
+    }
+
+    public void vwspCalculated(long nanos) {
+        vwspCalculation.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void gbceCalculated(long nanos) {
+        gbceCalculation.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void vwspCacheRead(boolean hit) {
+        (hit ? vwspCacheHits : vwspCacheMisses).increment();
+    }
+
+    public void gbceCacheRead(boolean hit) {
+        (hit ? gbceCacheHits : gbceCacheMisses).increment();
+    }
+}
@@ -0,0 +1,43 @@
+package com.sssm.metrics;
+
+import com.sssm.clock.TradeClock;
+import com.sssm.data.StockData;
+import com.sssm.data.StockTable;
+import com.sssm.data.TradeWindow;
+import com.sssm.repository.TradeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TradeStoreMetrics implements MeterBinder {
+
+    @Autowired
+    private StockData stockData;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeClock tradeClock;
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        stockData.addListener(stockTable -> register(meterRegistry, stockTable));
+        register(meterRegistry, stockData.getStockTable());
+    }
+
+    private void register(MeterRegistry meterRegistry, StockTable stockTable) {
+        stockTable.getSymbols().forEach(symbol -> Gauge.builder("sssm.trades.held", () -> tradesHeld(symbol))
+                .description("Trades held in the window of a stock")
+                .tag("symbol", symbol)
+                .register(meterRegistry));
+    }
+
+    private int tradesHeld(String symbol) {
+        TradeWindow tradeWindow = tradeRepository.getWindow(symbol);
+        return tradeWindow != null ? tradeWindow.getSize(tradeClock.epochNanos()) : 0;
+    }
+}
@@ -0,0 +1,70 @@
+package com.sssm.pipeline;
+
+import com.sssm.domain.Trade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tail stage that groups the trades of a batch by symbol and stores each symbol's trades with one call at the end of
+ * the batch, so the stage takes a stock's lock once per batch instead of once per trade. The trades are the ring
+ * slots themselves, they are not overwritten before the stage has finished the batch.
+ */
+public class SymbolBatchHandler implements TradeEventHandler {
+
+    @FunctionalInterface
+    public interface SymbolBatchStore {
+
+        void store(int symbolId, List<Trade> tradeList);
+    }
+
+    private final SymbolBatchStore store;
+    private List<Trade>[] batches = newBatches(16);
+    private int[] symbolIds = new int[16];
+    private int symbolCount;
+
+    public SymbolBatchHandler(SymbolBatchStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void onEvent(TradeEvent event, long sequence, boolean endOfBatch) {
+        int symbolId = event.getSymbolId();
+        if (symbolId >= batches.length) {
+            batches = Arrays.copyOf(batches, Math.max(batches.length << 1, symbolId + 1));
+        }
+        List<Trade> batch = batches[symbolId];
+        if (batch == null) {
+            batch = batches[symbolId] = new ArrayList<>();
+        }
+        if (batch.isEmpty()) {
+            if (symbolCount == symbolIds.length) {
+                symbolIds = Arrays.copyOf(symbolIds, symbolCount << 1);
+            }
+            symbolIds[symbolCount++] = symbolId;
+        }
+        batch.add(event.getTrade());
+        if (endOfBatch) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        try {
+            for (int i = 0; i < symbolCount; i++) {
+                store.store(symbolIds[i], batches[symbolIds[i]]);
+            }
+        } finally {
+            for (int i = 0; i < symbolCount; i++) {
+                batches[symbolIds[i]].clear();
+            }
+            symbolCount = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Trade>[] newBatches(int length) {
+        return new List[length];
+    }
+}
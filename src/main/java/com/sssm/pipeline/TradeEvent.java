@@ -0,0 +1,29 @@
+package com.sssm.pipeline;
+
+import com.sssm.domain.Trade;
+
+/**
+ * Preallocated ring buffer slot, the trade and its symbol id are overwritten each time the slot is reused.
+ */
+public class TradeEvent {
+
+    private final Trade trade = new Trade();
+    private int symbolId;
+
+    public Trade getTrade() {
+        return trade;
+    }
+
+    public int getSymbolId() {
+        return symbolId;
+    }
+
+    void set(Trade source, int symbolId) {
+        trade.setSymbol(source.getSymbol());
+        trade.setType(source.getType());
+        trade.setTradePrice(source.getTradePrice());
+        trade.setQuantity(source.getQuantity());
+        trade.setTradeTimestampNanos(source.getTradeTimestampNanos());
+        this.symbolId = symbolId;
+    }
+}
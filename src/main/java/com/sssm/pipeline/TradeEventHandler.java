@@ -0,0 +1,11 @@
+package com.sssm.pipeline;
+
+/**
+ * One stage of the {@link TradePipeline}. Events are handed over in sequence order, endOfBatch marks the last
+ * event currently available so a stage can amortise its work over the batch.
+ */
+@FunctionalInterface
+public interface TradeEventHandler {
+
+    void onEvent(TradeEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,146 @@
+package com.sssm.pipeline;
+
+import com.sssm.domain.Trade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Disruptor style ring of preallocated {@link TradeEvent} slots. Request threads claim a sequence, copy the trade
+ * into its slot and return; the head stage consumes published events in sequence order and the tail stages consume
+ * each event once the head is done with it, in parallel with each other. Every stage runs on its own thread and
+ * processes whatever has become available as one batch. A publisher waits when the ring is full, so a slow stage
+ * holds back ingest instead of growing a queue.
+ */
+public class TradePipeline implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TradePipeline.class);
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private final TradeEvent[] ring;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final Stage[] gatingStages;
+    private final Thread[] threads;
+    private volatile boolean running = true;
+
+    public TradePipeline(int bufferSize, TradeEventHandler head, TradeEventHandler... tails) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.ring = new TradeEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new TradeEvent();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        Stage headStage = new Stage(head, null);
+        Stage[] tailStages = new Stage[tails.length];
+        this.threads = new Thread[tails.length + 1];
+        threads[0] = new Thread(headStage, "trade-pipeline-0");
+        for (int i = 0; i < tails.length; i++) {
+            tailStages[i] = new Stage(tails[i], headStage);
+            threads[i + 1] = new Thread(tailStages[i], "trade-pipeline-" + (i + 1));
+        }
+        this.gatingStages = tails.length > 0 ? tailStages : new Stage[]{headStage};
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public long publish(Trade trade, int symbolId) {
+        if (!running) throw new IllegalStateException("The trade pipeline is closed.");
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - ring.length;
+        while (wrapPoint > getConsumedSequence()) {
+            LockSupport.parkNanos(1_000);
+        }
+        int index = (int) sequence & mask;
+        ring[index].set(trade, symbolId);
+        published.lazySet(index, sequence);
+        return sequence;
+    }
+
+    public long getPublishedSequence() {
+        return cursor.get();
+    }
+
+    public long getConsumedSequence() {
+        long consumed = Long.MAX_VALUE;
+        for (Stage stage : gatingStages) {
+            consumed = Math.min(consumed, stage.sequence.get());
+        }
+        return consumed;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private long highestPublished(long next) {
+        long limit = cursor.get();
+        long sequence = next - 1;
+        while (sequence < limit && published.get((int) (sequence + 1) & mask) == sequence + 1) {
+            sequence++;
+        }
+        return sequence;
+    }
+
+    private final class Stage implements Runnable {
+
+        private final TradeEventHandler handler;
+        private final Stage upstream;
+        private final AtomicLong sequence = new AtomicLong(-1);
+
+        private Stage(TradeEventHandler handler, Stage upstream) {
+            this.handler = handler;
+            this.upstream = upstream;
+        }
+
+        @Override
+        public void run() {
+            long next = 0;
+            int idle = 0;
+            while (true) {
+                long available = upstream == null ? highestPublished(next) : upstream.sequence.get();
+                if (available < next) {
+                    if (!running && next > cursor.get()) {
+                        return;
+                    }
+                    if (idle < SPINS) {
+                        idle++;
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                    continue;
+                }
+                for (long current = next; current <= available; current++) {
+                    try {
+                        handler.onEvent(ring[(int) current & mask], current, current == available);
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Trade pipeline stage failed on sequence {}.", current, e);
+                    }
+                }
+                sequence.set(available);
+                next = available + 1;
+                idle = 0;
+            }
+        }
+    }
+}
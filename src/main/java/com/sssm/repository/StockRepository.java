@@ -1,23 +1,25 @@
 package com.sssm.repository;
 
 import com.sssm.data.StockData;
+import com.sssm.data.StockTable;
+import com.sssm.data.SymbolTable;
 import com.sssm.domain.Stock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 @Repository
 public class StockRepository {
 
     @Autowired
     private StockData stockData;
 
-    private ConcurrentHashMap<String, Stock> getMap() {
-        return stockData.getStockData();
+    public StockTable getStockTable() {
+        return stockData.getStockTable();
     }
 
     public Stock get(String symbol) {
-        return getMap().get(symbol);
+        StockTable stockTable = getStockTable();
+        int id = stockTable.find(symbol);
+        return id != SymbolTable.UNKNOWN ? stockTable.getStock(id) : null;
     }
 }
@@ -1,44 +1,148 @@
 package com.sssm.repository;
 
+import com.sssm.clock.TradeClock;
+import com.sssm.data.AllShareIndex;
+import com.sssm.data.TradeBars;
 import com.sssm.data.TradeData;
+import com.sssm.data.TradeJournal;
+import com.sssm.data.TradeLeaderboards;
+import com.sssm.data.TradeWindow;
 import com.sssm.domain.Trade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.CollectionUtils;
 
-import java.util.ArrayList;
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Repository
 public class TradeRepository {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(TradeRepository.class);
+
     @Autowired
     private TradeData tradeData;
 
-    private ConcurrentHashMap<String, List<Trade>> getMap() {
-        return tradeData.getTradeData();
+    @Autowired
+    private TradeClock tradeClock;
+
+    @Autowired(required = false)
+    private TradeJournal tradeJournal;
+
+    @PostConstruct
+    private void replayJournal() throws IOException {
+        if (tradeJournal != null) {
+            long replayed = tradeJournal.replay(trade -> {
+                int symbolId = intern(trade.getSymbol());
+                addToWindow(symbolId, trade);
+                addToBars(symbolId, trade);
+                addToIndex(symbolId, trade.getTradePrice());
+            });
+            LOGGER.info("Replayed {} trades from the trade journal.", replayed);
+        }
     }
 
     public Trade save(String symbol, Trade trade) {
-        List<Trade> trades = get(symbol);
-        if (!CollectionUtils.isEmpty(trades)) {
-            getMap().get(symbol).add(trade);
-        } else {
-            trades = new ArrayList<>();
-            trades.add(trade);
-            getMap().put(symbol, trades);
+        if (tradeJournal != null) {
+            tradeJournal.append(trade);
         }
+        int symbolId = intern(symbol);
+        addToWindow(symbolId, trade);
+        addToBars(symbolId, trade);
+        addToIndex(symbolId, trade.getTradePrice());
         return trade;
     }
 
+    public List<Trade> saveAll(String symbol, List<Trade> tradeList) {
+        appendToJournal(tradeList);
+        int symbolId = intern(symbol);
+        tradeData.getOrCreateTradeWindow(symbolId).addAll(tradeList);
+        tradeData.getOrCreateTradeBars(symbolId).addAll(tradeList);
+        tradeData.getAllShareIndex().addAll(symbolId, tradeList);
+        return tradeList;
+    }
+
+    /**
+     * Saves the trades that are in timestamp order after the stored trades of the stock, see
+     * {@link TradeWindow#addAllInOrder(List)}, and returns them.
+     */
+    public List<Trade> saveAllInOrder(String symbol, List<Trade> tradeList) {
+        int symbolId = intern(symbol);
+        List<Trade> ordered = tradeData.getOrCreateTradeWindow(symbolId).addAllInOrder(tradeList);
+        if (!ordered.isEmpty()) {
+            appendToJournal(ordered);
+            tradeData.getOrCreateTradeBars(symbolId).addAll(ordered);
+            tradeData.getAllShareIndex().addAll(symbolId, ordered);
+        }
+        return ordered;
+    }
+
+    public int intern(String symbol) {
+        return tradeData.getSymbolTable().intern(symbol);
+    }
+
+    public void appendToJournal(List<Trade> tradeList) {
+        if (tradeJournal != null) {
+            tradeJournal.appendAll(tradeList);
+        }
+    }
+
+    public void addToWindow(int symbolId, Trade trade) {
+        tradeData.getOrCreateTradeWindow(symbolId).add(trade);
+    }
+
+    public void addToBars(int symbolId, Trade trade) {
+        tradeData.getOrCreateTradeBars(symbolId).add(trade);
+    }
+
+    public void addToIndex(int symbolId, double price) {
+        tradeData.getAllShareIndex().add(symbolId, price);
+    }
+
+    public void addAllToWindow(int symbolId, List<Trade> tradeList) {
+        tradeData.getOrCreateTradeWindow(symbolId).addAll(tradeList);
+    }
+
+    public void addAllToBars(int symbolId, List<Trade> tradeList) {
+        tradeData.getOrCreateTradeBars(symbolId).addAll(tradeList);
+    }
+
+    public void addAllToIndex(int symbolId, List<Trade> tradeList) {
+        tradeData.getAllShareIndex().addAll(symbolId, tradeList);
+    }
+
     public List<Trade> get(String symbol) {
-        return getMap().get(symbol);
+        TradeWindow tradeWindow = getWindow(symbol);
+        return tradeWindow != null ? tradeWindow.getTrades(tradeClock.epochNanos()) : null;
+    }
+
+    public TradeWindow getWindow(String symbol) {
+        return tradeData.getTradeWindow(tradeData.getSymbolTable().find(symbol));
+    }
+
+    public TradeBars getBars(String symbol) {
+        return tradeData.getTradeBars(tradeData.getSymbolTable().find(symbol));
+    }
+
+    public TradeLeaderboards getLeaderboards() {
+        return tradeData.getTradeLeaderboards();
+    }
+
+    public AllShareIndex getAllShareIndex() {
+        return tradeData.getAllShareIndex();
     }
 
     public Collection<List<Trade>> getAllTrades() {
-        return getMap().values();
+        long now = tradeClock.epochNanos();
+        return Arrays.stream(tradeData.getTradeData())
+                .filter(Objects::nonNull)
+                .map(tradeWindow -> tradeWindow.getTrades(now))
+                .collect(Collectors.toList());
     }
 }
-
@@ -1,6 +1,10 @@
 package com.sssm.service;
 
 import com.sssm.domain.Stock;
+import com.sssm.domain.StockPrices;
+import com.sssm.domain.StockValuation;
+
+import java.util.List;
 
 public interface StockService {
 
@@ -9,4 +13,6 @@ public interface StockService {
     double calculateDividendYield(String symbol, double price);
 
     double calculatePERatio(String symbol, double price);
+
+    List<StockValuation> calculateValuations(List<StockPrices> stockPricesList);
 }
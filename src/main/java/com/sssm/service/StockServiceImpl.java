@@ -1,7 +1,10 @@
 package com.sssm.service;
 
+import com.sssm.data.StockTable;
+import com.sssm.data.SymbolTable;
 import com.sssm.domain.Stock;
-import com.sssm.domain.StockType;
+import com.sssm.domain.StockPrices;
+import com.sssm.domain.StockValuation;
 import com.sssm.exception.InvalidDataException;
 import com.sssm.exception.NoDataException;
 import com.sssm.repository.StockRepository;
@@ -11,6 +14,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -26,7 +31,7 @@ public class StockServiceImpl implements StockService {
         Optional<Stock> result = Optional.ofNullable(stockRepository.get(symbol));
         if (result.isPresent()) {
             Stock stock = result.get();
-            LOGGER.info("Stock data: {}", stock);
+            LOGGER.debug("Stock data: {}", stock);
             return stock;
         }
         throw new NoDataException("Stock with symbol: " + symbol + " not found.");
@@ -35,15 +40,17 @@ public class StockServiceImpl implements StockService {
     @Override
     public double calculateDividendYield(String symbol, double price) {
         LOGGER.info("Calculating dividend yield.");
-        Stock stock = validateInputAndGetStockData(symbol, price);
-        return getDividendYield(stock, price);
+        StockTable stockTable = stockRepository.getStockTable();
+        int id = validateInputAndFindStock(stockTable, symbol, price);
+        return getDividendYield(stockTable.getDividend(id), price);
     }
 
     public double calculatePERatio(String symbol, double price) {
         LOGGER.info("Calculating P/E ratio.");
         double peRatio = 0.0;
-        Stock stock = validateInputAndGetStockData(symbol, price);
-        double dividend = getDividendYield(stock, price);
+        StockTable stockTable = stockRepository.getStockTable();
+        int id = validateInputAndFindStock(stockTable, symbol, price);
+        double dividend = getDividendYield(stockTable.getDividend(id), price);
         if (dividend > 0.0) {
             peRatio = price / dividend;
         }
@@ -51,20 +58,65 @@ public class StockServiceImpl implements StockService {
         return peRatio;
     }
 
-    private Stock validateInputAndGetStockData(String symbol, double price) {
+    @Override
+    public List<StockValuation> calculateValuations(List<StockPrices> stockPricesList) {
+        if (stockPricesList.isEmpty())
+            throw new InvalidDataException("Please provide at least one stock to calculate.");
+        StockTable stockTable = stockRepository.getStockTable();
+        int[] ids = new int[stockPricesList.size()];
+        int priceCount = 0;
+        for (int i = 0; i < ids.length; i++) {
+            StockPrices stockPrices = stockPricesList.get(i);
+            if (stockPrices == null) throw new InvalidDataException("Please provide the stock and prices to calculate.");
+            if (!StringUtils.hasText(stockPrices.getSymbol())) throw new InvalidDataException("Stock symbol can not be empty.");
+            double[] prices = stockPrices.getPrices();
+            if (prices == null)
+                throw new InvalidDataException("Please enter the prices to calculate for stock: " + stockPrices.getSymbol());
+            for (double price : prices) {
+                if (!(price > 0.0))
+                    throw new InvalidDataException("Please enter a valid price for the calculation.");
+            }
+            ids[i] = findStock(stockTable, stockPrices.getSymbol());
+            priceCount += prices.length;
+        }
+        LOGGER.info("Calculating dividend yield and P/E ratio for {} stocks, {} prices.", ids.length, priceCount);
+        List<StockValuation> result = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            StockPrices stockPrices = stockPricesList.get(i);
+            double[] prices = stockPrices.getPrices();
+            double[] dividendYields = new double[prices.length];
+            double[] peRatios = new double[prices.length];
+            calculateValuations(stockTable.getDividend(ids[i]), prices, dividendYields, peRatios);
+            result.add(new StockValuation(stockPrices.getSymbol(), dividendYields, peRatios));
+        }
+        return result;
+    }
+
+    private static void calculateValuations(double dividend, double[] prices, double[] dividendYields, double[] peRatios) {
+        boolean paysDividend = dividend > 0.0;
+        for (int i = 0; i < prices.length; i++) {
+            double price = prices[i];
+            double dividendYield = dividend / price;
+            dividendYields[i] = dividendYield;
+            peRatios[i] = paysDividend ? price / dividendYield : 0.0;
+        }
+    }
+
+    private int validateInputAndFindStock(StockTable stockTable, String symbol, double price) {
         if (!StringUtils.hasText(symbol)) throw new InvalidDataException("Stock symbol can not be empty.");
         if (price <= 0.0)
             throw new InvalidDataException("Please enter a valid price for the calculation.");
-        return getStock(symbol);
+        return findStock(stockTable, symbol);
     }
 
-    private double getDividendYield(Stock stock, double price) {
-        double dividendYield;
-        if (StockType.COMMON == stock.getType()) {
-            dividendYield = stock.getLastDividend() / price;
-        } else {
-            dividendYield = (stock.getFixedDividend() * stock.getParValue()) / price;
-        }
+    private int findStock(StockTable stockTable, String symbol) {
+        int id = stockTable.find(symbol);
+        if (id == SymbolTable.UNKNOWN) throw new NoDataException("Stock with symbol: " + symbol + " not found.");
+        return id;
+    }
+
+    private double getDividendYield(double dividend, double price) {
+        double dividendYield = dividend / price;
         LOGGER.info("The dividend yield is: {}", dividendYield);
         return dividendYield;
     }
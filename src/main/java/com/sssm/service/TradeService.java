@@ -1,12 +1,36 @@
 package com.sssm.service;
 
+import com.sssm.domain.Bar;
+import com.sssm.domain.LeaderboardEntry;
+import com.sssm.domain.LogPriceSum;
 import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeReceipt;
+import com.sssm.domain.TradeResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 public interface TradeService {
 
     Trade recordTrade(Trade tradeRequest);
 
+    List<TradeResult> recordTrades(List<Trade> tradeRequests);
+
+    TradeReceipt submitTrade(Trade tradeRequest);
+
     double calculateVolumeWeightedStockPrice(String symbol);
 
+    Map<String, Double> calculateVolumeWeightedStockPrices(List<String> symbols);
+
+    TradePage getTrades(String symbol, LocalDateTime from, LocalDateTime to, int offset, int limit);
+
     double calculateGBCEAllShareIndex();
+
+    LogPriceSum getLogPriceSum();
+
+    List<Bar> getBars(String symbol, String resolution, int count);
+
+    List<LeaderboardEntry> getTopSymbols(String metric, int count);
 }
@@ -1,29 +1,52 @@
 package com.sssm.service;
 
+import com.sssm.clock.TradeClock;
+import com.sssm.cluster.TradeCluster;
+import com.sssm.data.AllShareIndex;
+import com.sssm.data.CachedValue;
+import com.sssm.data.TradeBars;
+import com.sssm.data.TradeWindow;
+import com.sssm.domain.Bar;
+import com.sssm.domain.BarResolution;
+import com.sssm.domain.LeaderboardEntry;
+import com.sssm.domain.LeaderboardMetric;
+import com.sssm.domain.LogPriceSum;
 import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeReceipt;
+import com.sssm.domain.TradeResult;
+import com.sssm.domain.TradeStatus;
 import com.sssm.domain.TradeType;
 import com.sssm.exception.InvalidDataException;
+import com.sssm.exception.NoDataException;
+import com.sssm.exception.NodeUnavailableException;
+import com.sssm.exception.PipelineDisabledException;
+import com.sssm.metrics.TradeMetrics;
+import com.sssm.pipeline.TradePipeline;
 import com.sssm.repository.TradeRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class TradeServiceImpl implements TradeService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TradeServiceImpl.class);
-
-    @Value("${minutes.last.trades}")
-    private Integer minutes;
+    private static final int MAX_PAGE_SIZE = 10_000;
 
     @Autowired
     private StockService stockService;
@@ -31,69 +54,311 @@ public class TradeServiceImpl implements TradeService {
     @Autowired
     private TradeRepository tradeRepository;
 
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    @Autowired
+    private TradeClock tradeClock;
+
+    @Autowired(required = false)
+    private TradePipeline tradePipeline;
+
+    @Autowired(required = false)
+    private TradeCluster tradeCluster;
+
     @Override
     public Trade recordTrade(Trade tradeRequest) {
         LOGGER.info("Recording the trade.");
         String symbol = tradeRequest.getSymbol();
+        if (tradeCluster != null && !tradeCluster.isLocal(symbol)) {
+            LOGGER.info("Forwarding the trade for stock: {} to cluster node {}.", symbol, tradeCluster.getOwner(symbol));
+            return tradeCluster.recordTrade(tradeRequest);
+        }
         validateTrade(tradeRequest);
-        validateStock(symbol);
-        tradeRequest.setTradeTimestamp(LocalDateTime.now());
+        RuntimeException stockError = findStockError(symbol);
+        if (stockError != null) throw rejectTrade(stockError);
+        tradeRequest.setTradeTimestampNanos(tradeClock.epochNanos());
         Trade recordedTrade = tradeRepository.save(symbol, tradeRequest);
-        LOGGER.info("The recorded trade is: {}", recordedTrade);
+        tradeMetrics.tradesRecorded(1);
+        LOGGER.info("Recorded trade for stock: {}", symbol);
+        LOGGER.debug("The recorded trade is: {}", recordedTrade);
         return recordedTrade;
     }
 
+    @Override
+    public TradeReceipt submitTrade(Trade tradeRequest) {
+        if (tradeCluster != null && !tradeCluster.isLocal(tradeRequest.getSymbol())) {
+            LOGGER.info("Forwarding the trade for stock: {} to cluster node {}.", tradeRequest.getSymbol(),
+                    tradeCluster.getOwner(tradeRequest.getSymbol()));
+            return tradeCluster.submitTrade(tradeRequest);
+        }
+        if (tradePipeline == null) throw new PipelineDisabledException("The trade pipeline is not enabled.");
+        LOGGER.info("Submitting the trade.");
+        String symbol = tradeRequest.getSymbol();
+        validateTrade(tradeRequest);
+        RuntimeException stockError = findStockError(symbol);
+        if (stockError != null) throw rejectTrade(stockError);
+        tradeRequest.setTradeTimestampNanos(tradeClock.epochNanos());
+        long sequence = tradePipeline.publish(tradeRequest, tradeRepository.intern(symbol));
+        tradeMetrics.tradesRecorded(1);
+        LOGGER.info("Submitted trade for stock: {} with sequence {}", symbol, sequence);
+        return new TradeReceipt(sequence, tradeRequest);
+    }
+
+    @Override
+    public List<TradeResult> recordTrades(List<Trade> tradeRequests) {
+        if (CollectionUtils.isEmpty(tradeRequests))
+            throw new InvalidDataException("Please provide at least one trade to record.");
+        return tradeCluster != null && !tradeCluster.isForwarded()
+                ? recordTradesInCluster(tradeRequests) : recordLocalTrades(tradeRequests);
+    }
+
+    /**
+     * Records the trades owned by this node while the trades of other nodes are forwarded to them, one batch per
+     * node, and puts the results back in request order. The trades of a node that can not be reached are
+     * UNAVAILABLE, the others are still recorded.
+     */
+    private List<TradeResult> recordTradesInCluster(List<Trade> tradeRequests) {
+        List<List<Trade>> tradesByNode = new ArrayList<>();
+        List<List<Integer>> positionsByNode = new ArrayList<>();
+        for (int node = 0; node < tradeCluster.getNodeCount(); node++) {
+            tradesByNode.add(new ArrayList<>());
+            positionsByNode.add(new ArrayList<>());
+        }
+        for (int i = 0; i < tradeRequests.size(); i++) {
+            Trade tradeRequest = tradeRequests.get(i);
+            int node = tradeCluster.getOwner(tradeRequest != null ? tradeRequest.getSymbol() : null);
+            tradesByNode.get(node).add(tradeRequests.get(i));
+            positionsByNode.get(node).add(i);
+        }
+        List<CompletableFuture<List<TradeResult>>> forwarded = new ArrayList<>();
+        for (int node = 0; node < tradeCluster.getNodeCount(); node++) {
+            boolean remote = node != tradeCluster.getNodeIndex() && !tradesByNode.get(node).isEmpty();
+            forwarded.add(remote ? tradeCluster.recordTrades(node, tradesByNode.get(node)) : null);
+        }
+        List<Trade> localTrades = tradesByNode.get(tradeCluster.getNodeIndex());
+        List<TradeResult> localResults = localTrades.isEmpty() ? Collections.emptyList() : recordLocalTrades(localTrades);
+        TradeResult[] results = new TradeResult[tradeRequests.size()];
+        for (int node = 0; node < tradeCluster.getNodeCount(); node++) {
+            List<Integer> positions = positionsByNode.get(node);
+            if (positions.isEmpty()) continue;
+            List<TradeResult> nodeResults = forwarded.get(node) != null
+                    ? joinForwardedTrades(forwarded.get(node), tradesByNode.get(node)) : localResults;
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = nodeResults.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<TradeResult> joinForwardedTrades(CompletableFuture<List<TradeResult>> forwarded, List<Trade> tradeRequests) {
+        try {
+            return TradeCluster.join(forwarded);
+        } catch (NodeUnavailableException exception) {
+            LOGGER.warn("Unable to forward {} trades: {}", tradeRequests.size(), exception.getMessage());
+            List<TradeResult> results = new ArrayList<>(tradeRequests.size());
+            for (Trade tradeRequest : tradeRequests) {
+                results.add(new TradeResult(TradeStatus.UNAVAILABLE, exception.getMessage(), tradeRequest));
+            }
+            return results;
+        }
+    }
+
+    private List<TradeResult> recordLocalTrades(List<Trade> tradeRequests) {
+        LOGGER.info("Recording a batch of {} trades.", tradeRequests.size());
+        long tradeTimestamp = tradeClock.epochNanos();
+        List<TradeResult> results = new ArrayList<>(tradeRequests.size());
+        Map<String, RuntimeException> stockErrors = new HashMap<>();
+        Map<String, List<Trade>> tradesBySymbol = new LinkedHashMap<>();
+        int recorded = 0;
+        for (Trade tradeRequest : tradeRequests) {
+            try {
+                validateTrade(tradeRequest);
+                String symbol = tradeRequest.getSymbol();
+                if (!stockErrors.containsKey(symbol)) stockErrors.put(symbol, findStockError(symbol));
+                RuntimeException stockError = stockErrors.get(symbol);
+                if (stockError != null) throw rejectTrade(stockError);
+                tradeRequest.setTradeTimestampNanos(tradeTimestamp);
+                tradesBySymbol.computeIfAbsent(symbol, key -> new ArrayList<>()).add(tradeRequest);
+                results.add(new TradeResult(TradeStatus.RECORDED, null, tradeRequest));
+                recorded++;
+            } catch (InvalidDataException exception) {
+                results.add(new TradeResult(TradeStatus.INVALID, exception.getMessage(), tradeRequest));
+            } catch (NoDataException exception) {
+                results.add(new TradeResult(TradeStatus.NOT_FOUND, exception.getMessage(), tradeRequest));
+            }
+        }
+        tradesBySymbol.forEach(tradeRepository::saveAll);
+        tradeMetrics.tradesRecorded(recorded);
+        LOGGER.info("Recorded {} of {} trades.", recorded, tradeRequests.size());
+        return results;
+    }
+
     public double calculateVolumeWeightedStockPrice(String symbol) {
         LOGGER.info("Calculating Volume Weighted Stock Price.");
+        if (tradeCluster != null && !tradeCluster.isLocal(symbol)) {
+            LOGGER.info("Forwarding the Volume Weighted Stock Price of stock: {} to cluster node {}.", symbol,
+                    tradeCluster.getOwner(symbol));
+            return tradeCluster.calculateVolumeWeightedStockPrice(symbol);
+        }
         validateStock(symbol);
+        double volumeWeightedStockPrice = calculateLocalVolumeWeightedStockPrice(symbol);
+        LOGGER.info("The Volume Weighted Stock Price is: {}", volumeWeightedStockPrice);
+        return volumeWeightedStockPrice;
+    }
+
+    /**
+     * The VWSP of several stocks, those owned by other cluster nodes requested with one request per owner.
+     */
+    public Map<String, Double> calculateVolumeWeightedStockPrices(List<String> symbols) {
+        if (CollectionUtils.isEmpty(symbols)) throw new InvalidDataException("Please provide at least one stock symbol.");
+        LOGGER.info("Calculating Volume Weighted Stock Prices of {} stocks.", symbols.size());
+        List<String> localSymbols = new ArrayList<>();
+        Map<Integer, List<String>> remoteSymbols = new HashMap<>();
+        for (String symbol : symbols) {
+            if (tradeCluster != null && !tradeCluster.isLocal(symbol)) {
+                remoteSymbols.computeIfAbsent(tradeCluster.getOwner(symbol), node -> new ArrayList<>()).add(symbol);
+            } else {
+                validateStock(symbol);
+                localSymbols.add(symbol);
+            }
+        }
+        List<CompletableFuture<Map<String, Double>>> forwarded = new ArrayList<>();
+        remoteSymbols.forEach((node, nodeSymbols) -> forwarded.add(tradeCluster.requestVolumeWeightedStockPrices(node, nodeSymbols)));
+        Map<String, Double> volumeWeightedStockPrices = new LinkedHashMap<>();
+        for (String symbol : localSymbols) {
+            volumeWeightedStockPrices.put(symbol, calculateLocalVolumeWeightedStockPrice(symbol));
+        }
+        for (CompletableFuture<Map<String, Double>> nodeVolumeWeightedStockPrices : forwarded) {
+            volumeWeightedStockPrices.putAll(TradeCluster.join(nodeVolumeWeightedStockPrices));
+        }
+        return volumeWeightedStockPrices;
+    }
+
+    private double calculateLocalVolumeWeightedStockPrice(String symbol) {
+        long start = System.nanoTime();
         double volumeWeightedStockPrice = 0;
-        List<Trade> tradeList = tradeRepository.get(symbol);
-        LOGGER.info("All Trades for {} are: {}", symbol, tradeList);
-        if (!CollectionUtils.isEmpty(tradeList)) {
-            List<Trade> tradesInGivenTime = tradeList
-                    .stream()
-                    .filter(trade -> trade.getTradeTimestamp().isAfter(LocalDateTime.now().minusMinutes(minutes)))
-                    .collect(Collectors.toList());
-            LOGGER.info("Trades in past {} minutes are: {}", minutes, tradesInGivenTime);
-            double priceQuantitySum = tradesInGivenTime.stream().mapToDouble(trade -> trade.getQuantity() * trade.getTradePrice()).sum();
-            int quantitySum = tradesInGivenTime.stream().mapToInt(Trade::getQuantity).sum();
-            volumeWeightedStockPrice = priceQuantitySum / quantitySum;
+        TradeWindow tradeWindow = tradeRepository.getWindow(symbol);
+        if (tradeWindow != null) {
+            long now = tradeClock.epochNanos();
+            CachedValue cached = tradeWindow.getCachedVolumeWeightedStockPrice(now);
+            tradeMetrics.vwspCacheRead(cached != null);
+            volumeWeightedStockPrice = cached != null ? cached.getValue() : tradeWindow.getVolumeWeightedStockPrice(now);
         }
-        LOGGER.info("The Volume Weighted Stock Price is: {}", volumeWeightedStockPrice);
+        tradeMetrics.vwspCalculated(System.nanoTime() - start);
         return volumeWeightedStockPrice;
     }
 
     public double calculateGBCEAllShareIndex() {
         LOGGER.info("Calculating GBCE All Share Index.");
-        double gbceAllShareIndex = 0;
-        Collection<List<Trade>> tradeList = tradeRepository.getAllTrades();
-        LOGGER.info("All Trades are: {}", tradeList);
-        if (!CollectionUtils.isEmpty(tradeList)) {
-            double priceResult = 1;
-            List<Trade> trades = tradeList.stream()
-                    .flatMap(List::stream)
-                    .collect(Collectors.toList());
-            for (Trade trade : trades) {
-                priceResult *= trade.getTradePrice();
-            }
-            double tradeSize = tradeList.size();
-            gbceAllShareIndex = Math.pow(priceResult, 1 / tradeSize);
+        long start = System.nanoTime();
+        AllShareIndex allShareIndex = tradeRepository.getAllShareIndex();
+        double gbceAllShareIndex;
+        if (tradeCluster != null) {
+            gbceAllShareIndex = tradeCluster.calculateGBCEAllShareIndex(allShareIndex.getLogPriceSum());
+        } else {
+            CachedValue cached = allShareIndex.getCachedValue();
+            tradeMetrics.gbceCacheRead(cached != null);
+            gbceAllShareIndex = cached != null ? cached.getValue() : allShareIndex.getValue();
         }
+        tradeMetrics.gbceCalculated(System.nanoTime() - start);
         LOGGER.info("The GBCE All Share Index is: {}", gbceAllShareIndex);
         return gbceAllShareIndex;
     }
 
+    @Override
+    public LogPriceSum getLogPriceSum() {
+        return tradeRepository.getAllShareIndex().getLogPriceSum();
+    }
+
+    @Override
+    public TradePage getTrades(String symbol, LocalDateTime from, LocalDateTime to, int offset, int limit) {
+        LOGGER.info("Reading trades between {} and {}.", from, to);
+        if (tradeCluster != null && !tradeCluster.isLocal(symbol)) {
+            LOGGER.info("Forwarding the trades of stock: {} to cluster node {}.", symbol, tradeCluster.getOwner(symbol));
+            return tradeCluster.getTrades(symbol, from, to, offset, limit);
+        }
+        validateStock(symbol);
+        if (from != null && to != null && from.isAfter(to))
+            throw new InvalidDataException("The start of the time range can not be after its end.");
+        if (offset < 0) throw new InvalidDataException("Please enter a valid page offset.");
+        if (limit <= 0 || limit > MAX_PAGE_SIZE)
+            throw new InvalidDataException("Please enter a page size between 1 and " + MAX_PAGE_SIZE + ".");
+        TradeWindow tradeWindow = tradeRepository.getWindow(symbol);
+        if (tradeWindow == null) {
+            return new TradePage(Collections.emptyList(), 0, null);
+        }
+        return tradeWindow.getTrades(from != null ? TradeClock.toEpochNanos(from) : Long.MIN_VALUE,
+                to != null ? TradeClock.toEpochNanos(to) : Long.MAX_VALUE, offset, limit, tradeClock.epochNanos());
+    }
+
+    @Override
+    public List<Bar> getBars(String symbol, String resolution, int count) {
+        LOGGER.info("Reading {} bars.", resolution);
+        if (tradeCluster != null && !tradeCluster.isLocal(symbol)) {
+            LOGGER.info("Forwarding the bars of stock: {} to cluster node {}.", symbol, tradeCluster.getOwner(symbol));
+            return tradeCluster.getBars(symbol, resolution, count);
+        }
+        validateStock(symbol);
+        BarResolution barResolution = BarResolution.fromLabel(resolution);
+        if (barResolution == null) throw new InvalidDataException("Bar resolution can only be 1s, 1m or 5m.");
+        if (count <= 0) throw new InvalidDataException("Please enter a valid number of bars.");
+        TradeBars tradeBars = tradeRepository.getBars(symbol);
+        return tradeBars != null ? tradeBars.getBars(barResolution, count) : Collections.emptyList();
+    }
+
+    /**
+     * The top stocks of this node merged with those of the other nodes, or of this node only for a request
+     * forwarded by another node.
+     */
+    @Override
+    public List<LeaderboardEntry> getTopSymbols(String metric, int count) {
+        LOGGER.info("Reading the top {} symbols by {}.", count, metric);
+        LeaderboardMetric leaderboardMetric = LeaderboardMetric.fromLabel(metric);
+        if (leaderboardMetric == null) throw new InvalidDataException("Leaderboard metric can only be volume, notional or count.");
+        if (count <= 0) throw new InvalidDataException("Please enter a valid number of symbols.");
+        List<LeaderboardEntry> entries = tradeRepository.getLeaderboards().getTop(leaderboardMetric, count);
+        if (tradeCluster == null || tradeCluster.isForwarded()) {
+            return entries;
+        }
+        List<LeaderboardEntry> clusterEntries = new ArrayList<>(entries);
+        tradeCluster.gatherTopSymbols(metric, count).forEach(clusterEntries::addAll);
+        clusterEntries.sort(Comparator.comparingDouble(LeaderboardEntry::getValue).reversed());
+        return clusterEntries.size() > count ? new ArrayList<>(clusterEntries.subList(0, count)) : clusterEntries;
+    }
+
     private void validateTrade(Trade tradeRequest) {
+        if (tradeRequest == null)
+            throw rejectTrade("trade", "Please provide a trade to record.");
         if (tradeRequest.getQuantity() <= 0)
-            throw new InvalidDataException("Please enter a valid quantity to record the trade.");
-        if (tradeRequest.getTradePrice() <= 0.0)
-            throw new InvalidDataException("Please enter a valid trade price to record the trade.");
+            throw rejectTrade("quantity", "Please enter a valid quantity to record the trade.");
+        if (!Double.isFinite(tradeRequest.getTradePrice()) || tradeRequest.getTradePrice() <= 0.0)
+            throw rejectTrade("price", "Please enter a valid trade price to record the trade.");
         if (TradeType.BUY != tradeRequest.getType() && TradeType.SELL != tradeRequest.getType())
-            throw new InvalidDataException("Trade type can only be BUY or SELL.");
+            throw rejectTrade("type", "Trade type can only be BUY or SELL.");
+    }
+
+    private InvalidDataException rejectTrade(String reason, String message) {
+        tradeMetrics.tradeRejected(reason);
+        return new InvalidDataException(message);
+    }
+
+    private RuntimeException rejectTrade(RuntimeException stockError) {
+        tradeMetrics.tradeRejected(stockError instanceof NoDataException ? "unknown_stock" : "symbol");
+        return stockError;
     }
 
     private void validateStock(String symbol) {
         if (!StringUtils.hasText(symbol)) throw new InvalidDataException("Stock symbol can not be empty.");
         stockService.getStock(symbol);
     }
+
+    private RuntimeException findStockError(String symbol) {
+        try {
+            validateStock(symbol);
+            return null;
+        } catch (InvalidDataException | NoDataException exception) {
+            return exception;
+        }
+    }
 }
@@ -0,0 +1,312 @@
+package com.sssm.stream;
+
+import com.sssm.clock.TradeClock;
+import com.sssm.cluster.TradeCluster;
+import com.sssm.data.AllShareIndex;
+import com.sssm.data.CachedValue;
+import com.sssm.data.TradeWindow;
+import com.sssm.domain.MarketDataUpdate;
+import com.sssm.exception.InvalidDataException;
+import com.sssm.exception.NodeUnavailableException;
+import com.sssm.repository.TradeRepository;
+import com.sssm.service.StockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes VWSP and GBCE updates to Server-Sent Event subscribers. Values are read once per tick for all subscribers
+ * together and only sent when they changed, so ticks cap the update rate of every stream; the VWSP of a stock is
+ * only recalculated once its window changed.
+ * Every subscription has its own bounded queue of pending events drained by one of trade.stream.sender.threads
+ * sender threads, so a slow client only holds up its own stream, and one that falls too far behind is disconnected.
+ * In cluster mode the VWSP of stocks owned by other nodes is requested from their owners, one request per owner
+ * and tick, in parallel, and the GBCE
+ * All Share Index covers the whole cluster; while a node is unavailable its values are not updated.
+ */
+@Component
+public class MarketDataPublisher {
+
+    public static final String VWSP_EVENT = "vwsp";
+    public static final String GBCE_EVENT = "gbce";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarketDataPublisher.class);
+    private static final int MAX_UPDATES_PER_SECOND = 1000;
+    private static final int MAX_PENDING_EVENTS = 256;
+
+    @Value("${trade.stream.max.updates.per.second}")
+    private int maxUpdatesPerSecond;
+
+    @Value("${trade.stream.timeout.ms}")
+    private long timeoutMillis;
+
+    @Value("${trade.stream.sender.threads}")
+    private int senderThreadCount;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeClock tradeClock;
+
+    @Autowired(required = false)
+    private TradeCluster tradeCluster;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Map<String, Double> lastVolumeWeightedStockPrices = new ConcurrentHashMap<>();
+    private volatile double lastGbceAllShareIndex;
+    private volatile boolean clusterAvailable = true;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService sender;
+
+    @PostConstruct
+    private void init() {
+        if (maxUpdatesPerSecond <= 0 || maxUpdatesPerSecond > MAX_UPDATES_PER_SECOND)
+            throw new IllegalStateException("trade.stream.max.updates.per.second must be between 1 and "
+                    + MAX_UPDATES_PER_SECOND + ", not " + maxUpdatesPerSecond + ".");
+        if (senderThreadCount <= 0)
+            throw new IllegalStateException("trade.stream.sender.threads must be at least 1, not " + senderThreadCount + ".");
+        AtomicInteger senderThreads = new AtomicInteger();
+        ThreadPoolExecutor senderPool = new ThreadPoolExecutor(senderThreadCount, senderThreadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "market-data-sender-" + senderThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        senderPool.allowCoreThreadTimeOut(true);
+        sender = senderPool;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "market-data-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMicros = TimeUnit.SECONDS.toMicros(1) / maxUpdatesPerSecond;
+        scheduler.scheduleAtFixedRate(this::publishUpdates, periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @PreDestroy
+    private void destroy() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    public SseEmitter subscribe(List<String> symbols, boolean gbce) {
+        return subscribe(new SseEmitter(timeoutMillis), symbols, gbce);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, List<String> symbols, boolean gbce) {
+        Set<String> subscribedSymbols = new LinkedHashSet<>();
+        if (symbols != null) {
+            for (String symbol : symbols) {
+                if (!StringUtils.hasText(symbol)) throw new InvalidDataException("Stock symbol can not be empty.");
+                stockService.getStock(symbol);
+                subscribedSymbols.add(symbol);
+            }
+        }
+        if (subscribedSymbols.isEmpty() && !gbce)
+            throw new InvalidDataException("Please subscribe to at least one stock symbol or the GBCE All Share Index.");
+        Subscription subscription = new Subscription(emitter, subscribedSymbols, gbce);
+        subscription.emitter.onCompletion(() -> subscriptions.remove(subscription));
+        subscription.emitter.onTimeout(() -> subscriptions.remove(subscription));
+        subscription.emitter.onError(error -> subscriptions.remove(subscription));
+        // Ticks are held off until the current values are queued, so they follow them in the stream
+        synchronized (this) {
+            subscriptions.add(subscription);
+            LOGGER.info("New market data subscription for stocks: {}, GBCE: {}. Subscriptions: {}", subscribedSymbols, gbce, subscriptions.size());
+            Map<String, Double> volumeWeightedStockPrices;
+            double gbceAllShareIndex;
+            try {
+                volumeWeightedStockPrices = calculateVolumeWeightedStockPrices(subscribedSymbols, tradeClock.epochNanos(), false);
+                gbceAllShareIndex = gbce ? calculateGBCEAllShareIndex() : 0.0;
+            } catch (RuntimeException e) {
+                subscriptions.remove(subscription);
+                throw e;
+            }
+            volumeWeightedStockPrices.forEach((symbol, volumeWeightedStockPrice) -> {
+                lastVolumeWeightedStockPrices.putIfAbsent(symbol, volumeWeightedStockPrice);
+                subscription.send(VWSP_EVENT, new MarketDataUpdate(symbol, volumeWeightedStockPrice));
+            });
+            if (gbce) {
+                subscription.send(GBCE_EVENT, new MarketDataUpdate(null, gbceAllShareIndex));
+            }
+        }
+        return subscription.emitter;
+    }
+
+    synchronized void publishUpdates() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> subscribedSymbols = new LinkedHashSet<>();
+            boolean gbceSubscribed = false;
+            for (Subscription subscription : subscriptions) {
+                gbceSubscribed |= subscription.gbce;
+                subscribedSymbols.addAll(subscription.symbols);
+            }
+            Map<String, Double> volumeWeightedStockPrices = calculateVolumeWeightedStockPrices(subscribedSymbols, tradeClock.epochNanos(), true);
+            boolean available = volumeWeightedStockPrices.size() == subscribedSymbols.size();
+            Map<String, MarketDataUpdate> changedVolumeWeightedStockPrices = new HashMap<>();
+            volumeWeightedStockPrices.forEach((symbol, volumeWeightedStockPrice) -> {
+                Double last = lastVolumeWeightedStockPrices.put(symbol, volumeWeightedStockPrice);
+                if (last == null || Double.compare(last, volumeWeightedStockPrice) != 0) {
+                    changedVolumeWeightedStockPrices.put(symbol, new MarketDataUpdate(symbol, volumeWeightedStockPrice));
+                }
+            });
+            MarketDataUpdate gbceUpdate = null;
+            if (gbceSubscribed) {
+                try {
+                    double gbceAllShareIndex = calculateGBCEAllShareIndex();
+                    if (Double.compare(gbceAllShareIndex, lastGbceAllShareIndex) != 0) {
+                        lastGbceAllShareIndex = gbceAllShareIndex;
+                        gbceUpdate = new MarketDataUpdate(null, gbceAllShareIndex);
+                    }
+                } catch (NodeUnavailableException e) {
+                    available = false;
+                    clusterUnavailable(e);
+                }
+            }
+            if (available && !clusterAvailable) {
+                clusterAvailable = true;
+                LOGGER.info("Market data of other cluster nodes is updated again.");
+            }
+            for (Subscription subscription : subscriptions) {
+                for (String symbol : subscription.symbols) {
+                    MarketDataUpdate update = changedVolumeWeightedStockPrices.get(symbol);
+                    if (update != null) {
+                        subscription.send(VWSP_EVENT, update);
+                    }
+                }
+                if (subscription.gbce && gbceUpdate != null) {
+                    subscription.send(GBCE_EVENT, gbceUpdate);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to publish market data updates.", e);
+        }
+    }
+
+    /**
+     * The VWSP of the symbols. A stock whose window has not changed is read from the window's cached VWSP without
+     * taking its lock, and the stocks of other nodes are requested with one request per owner. Those owned by a
+     * node that can not be reached are left out when skipUnavailable is set, else the node's
+     * {@link NodeUnavailableException} is thrown.
+     */
+    private Map<String, Double> calculateVolumeWeightedStockPrices(Set<String> symbols, long now, boolean skipUnavailable) {
+        Map<String, Double> volumeWeightedStockPrices = new LinkedHashMap<>();
+        Map<Integer, List<String>> remoteSymbols = new HashMap<>();
+        for (String symbol : symbols) {
+            if (tradeCluster != null && !tradeCluster.isLocal(symbol)) {
+                remoteSymbols.computeIfAbsent(tradeCluster.getOwner(symbol), node -> new ArrayList<>()).add(symbol);
+                continue;
+            }
+            TradeWindow tradeWindow = tradeRepository.getWindow(symbol);
+            CachedValue cached = tradeWindow != null ? tradeWindow.getCachedVolumeWeightedStockPrice(now) : null;
+            volumeWeightedStockPrices.put(symbol, cached != null ? cached.getValue()
+                    : tradeWindow != null ? tradeWindow.getVolumeWeightedStockPrice(now) : 0.0);
+        }
+        Map<Integer, CompletableFuture<Map<String, Double>>> requested = new HashMap<>();
+        remoteSymbols.forEach((node, nodeSymbols) -> requested.put(node, tradeCluster.requestVolumeWeightedStockPrices(node, nodeSymbols)));
+        for (CompletableFuture<Map<String, Double>> future : requested.values()) {
+            try {
+                volumeWeightedStockPrices.putAll(TradeCluster.join(future));
+            } catch (NodeUnavailableException e) {
+                if (!skipUnavailable) throw e;
+                clusterUnavailable(e);
+            }
+        }
+        return volumeWeightedStockPrices;
+    }
+
+    private double calculateGBCEAllShareIndex() {
+        AllShareIndex allShareIndex = tradeRepository.getAllShareIndex();
+        return tradeCluster != null ? tradeCluster.calculateGBCEAllShareIndex(allShareIndex.getLogPriceSum()) : allShareIndex.getValue();
+    }
+
+    private void clusterUnavailable(NodeUnavailableException e) {
+        if (clusterAvailable) {
+            clusterAvailable = false;
+            LOGGER.warn("Market data of other cluster nodes is not updated: {}", e.getMessage());
+        }
+    }
+
+    private class Subscription {
+
+        private final SseEmitter emitter;
+        private final Set<String> symbols;
+        private final boolean gbce;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pendingEvents = new ArrayBlockingQueue<>(MAX_PENDING_EVENTS);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscription(SseEmitter emitter, Set<String> symbols, boolean gbce) {
+            this.emitter = emitter;
+            this.symbols = symbols;
+            this.gbce = gbce;
+        }
+
+        private void send(String event, MarketDataUpdate update) {
+            if (!pendingEvents.offer(SseEmitter.event().name(event).data(update))) {
+                LOGGER.warn("Disconnecting a market data subscriber {} events behind.", MAX_PENDING_EVENTS);
+                close(new IllegalStateException("The market data subscriber fell too far behind."));
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pendingEvents.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        close(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!pendingEvents.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close(Exception error) {
+            if (subscriptions.remove(this)) {
+                pendingEvents.clear();
+                emitter.completeWithError(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.sssm.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sssm.SuperSimpleStockMarketApplication;
+import com.sssm.domain.LogPriceSum;
+import com.sssm.exception.NodeUnavailableException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts a two node cluster as separate JVMs on localhost and drives it through the REST API.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class TradeClusterTest {
+
+    private static final String[] SYMBOLS = {"TEA", "POP", "ALE", "GIN", "JOE"};
+    private static final int NODES = 2;
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final List<Process> PROCESSES = new ArrayList<>();
+    private static final List<URI> URIS = new ArrayList<>();
+    private static TradeCluster cluster;
+
+    @BeforeAll
+    public static void startNodes() throws Exception {
+        for (int node = 0; node < NODES; node++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                URIS.add(URI.create("http://localhost:" + socket.getLocalPort()));
+            }
+        }
+        String nodes = URIS.get(0) + "," + URIS.get(1);
+        List<Path> logs = new ArrayList<>();
+        for (int node = 0; node < NODES; node++) {
+            Path log = Files.createTempFile("sssm-node-" + node, ".log");
+            logs.add(log);
+            PROCESSES.add(new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), SuperSimpleStockMarketApplication.class.getName(),
+                    "--server.port=" + URIS.get(node).getPort(), "--trade.cluster.enabled=true",
+                    "--trade.cluster.nodes=" + nodes, "--trade.cluster.node.index=" + node,
+                    "--logging.level.root=WARN", "--springfox.documentation.enabled=false")
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start());
+        }
+        cluster = new TradeCluster(URIS, 0, Duration.ofSeconds(2), OBJECT_MAPPER);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        for (int node = 0; node < NODES; node++) {
+            while (!isUp(URIS.get(node))) {
+                if (!PROCESSES.get(node).isAlive() || System.nanoTime() > deadline)
+                    fail("Cluster node " + node + " did not start:\n" + Files.readString(logs.get(node)));
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    @AfterAll
+    public static void stopNodes() throws InterruptedException {
+        for (Process process : PROCESSES) {
+            process.destroy();
+        }
+        for (Process process : PROCESSES) {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly();
+        }
+    }
+
+    private static boolean isUp(URI node) {
+        try {
+            return get(node, "/actuator/health").statusCode() == 200;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    private static HttpResponse<String> get(URI node, String path) throws IOException {
+        try {
+            return CLIENT.send(HttpRequest.newBuilder(node.resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        }
+    }
+
+    private static HttpResponse<String> post(URI node, String path, String body) throws IOException, InterruptedException {
+        return CLIENT.send(HttpRequest.newBuilder(node.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long tradeCount(URI node) throws IOException {
+        return OBJECT_MAPPER.readTree(get(node, "/trade/gbce/log-price-sum").body()).get("tradeCount").asLong();
+    }
+
+    private static String trade(String symbol, double price, int quantity) {
+        return String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"type\":\"BUY\",\"tradePrice\":%.2f,\"quantity\":%d}",
+                symbol, price, quantity);
+    }
+
+    @Test
+    @Order(1)
+    public void partitionsSymbolsAndGathersTheIndex() throws Exception {
+        double logPriceSum = 0.0;
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            double price = 10.0 * (i + 1);
+            HttpResponse<String> response = post(URIS.get(0), "/trade/record", trade(SYMBOLS[i], price, 5));
+            assertEquals(200, response.statusCode(), response.body());
+            JsonNode recorded = OBJECT_MAPPER.readTree(response.body());
+            assertEquals(SYMBOLS[i], recorded.get("symbol").asText());
+            assertTrue(recorded.get("tradeTimestamp").isTextual(), response.body());
+            logPriceSum += Math.log(price);
+        }
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            int owner = cluster.getOwner(SYMBOLS[i]);
+            assertEquals(10.0 * (i + 1), Double.parseDouble(get(URIS.get(1 - owner), "/trade/volume-weighted-stock-price/" + SYMBOLS[i]).body()), 1e-9);
+            for (URI node : URIS) {
+                JsonNode tradePage = OBJECT_MAPPER.readTree(get(node, "/trade/trades/" + SYMBOLS[i]).body());
+                assertEquals(1, tradePage.get("total").asInt());
+                assertEquals(10.0 * (i + 1), tradePage.get("trades").get(0).get("tradePrice").asDouble(), 1e-9);
+                JsonNode bars = OBJECT_MAPPER.readTree(get(node, "/trade/bars/" + SYMBOLS[i] + "?resolution=1m&count=1").body());
+                assertEquals(5, bars.get(0).get("volume").asLong());
+            }
+        }
+        for (URI node : URIS) {
+            JsonNode volumeWeightedStockPrices = OBJECT_MAPPER.readTree(post(node, "/trade/volume-weighted-stock-prices",
+                    OBJECT_MAPPER.writeValueAsString(SYMBOLS)).body());
+            for (int i = 0; i < SYMBOLS.length; i++) {
+                assertEquals(10.0 * (i + 1), volumeWeightedStockPrices.get(SYMBOLS[i]).asDouble(), 1e-9);
+            }
+        }
+        for (URI node : URIS) {
+            assertEquals(Math.exp(logPriceSum / SYMBOLS.length), Double.parseDouble(get(node, "/trade/gbce").body()), 1e-9);
+            JsonNode top = OBJECT_MAPPER.readTree(get(node, "/trade/top?metric=notional&count=2").body());
+            assertEquals(2, top.size());
+            assertEquals(SYMBOLS[SYMBOLS.length - 1], top.get(0).get("symbol").asText());
+            assertEquals(SYMBOLS[SYMBOLS.length - 2], top.get(1).get("symbol").asText());
+        }
+        long clusterTrades = 0;
+        for (URI node : URIS) {
+            clusterTrades += tradeCount(node);
+        }
+        assertEquals(SYMBOLS.length, clusterTrades);
+    }
+
+    @Test
+    @Order(2)
+    public void splitsBatchesAndKeepsResultOrder() throws Exception {
+        String batch = "[" + trade("GIN", 20.0, 1) + "," + trade("TEA", 30.0, 0) + "," + trade("POP", 40.0, 2) + ","
+                + trade("ALE", 50.0, 3) + "," + trade("JOE", 60.0, 4) + "]";
+        HttpResponse<String> response = post(URIS.get(1), "/trade/record-batch", batch);
+        assertEquals(200, response.statusCode(), response.body());
+        JsonNode results = OBJECT_MAPPER.readTree(response.body());
+        assertEquals(5, results.size());
+        String[] symbols = {"GIN", "TEA", "POP", "ALE", "JOE"};
+        for (int i = 0; i < symbols.length; i++) {
+            assertEquals(symbols[i], results.get(i).get("trade").get("symbol").asText());
+            assertEquals(i == 1 ? "INVALID" : "RECORDED", results.get(i).get("status").asText());
+        }
+    }
+
+    @Test
+    @Order(3)
+    public void returnsTheOwnersErrors() throws Exception {
+        String unknown = null;
+        for (int i = 0; unknown == null; i++) {
+            if (cluster.getOwner("BEV" + i) == 1) unknown = "BEV" + i;
+        }
+        HttpResponse<String> response = post(URIS.get(0), "/trade/record", trade(unknown, 10.0, 1));
+        assertEquals(404, response.statusCode());
+        assertTrue(response.body().contains("Stock with symbol: " + unknown + " not found."), response.body());
+        assertEquals(404, get(URIS.get(0), "/trade/volume-weighted-stock-price/" + unknown).statusCode());
+    }
+
+    @Test
+    @Order(4)
+    public void streamsTheValuesOfEveryNode() throws Exception {
+        URI other = URIS.get(1 - cluster.getOwner("POP"));
+        double volumeWeightedStockPrice = Double.parseDouble(get(other, "/trade/volume-weighted-stock-price/POP").body());
+        double gbceAllShareIndex = Double.parseDouble(get(other, "/trade/gbce").body());
+        assertTrue(volumeWeightedStockPrice > 0.0);
+        // A client of its own, the stream is abandoned mid-body and its connection must not be reused
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(other.resolve("/trade/stream?symbols=POP&gbce=true"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        try (Stream<String> lines = response.body()) {
+            List<JsonNode> updates = new ArrayList<>();
+            Iterator<String> iterator = lines.iterator();
+            while (updates.size() < 2 && iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.startsWith("data:")) updates.add(OBJECT_MAPPER.readTree(line.substring("data:".length())));
+            }
+            assertEquals("POP", updates.get(0).get("symbol").asText());
+            assertEquals(volumeWeightedStockPrice, updates.get(0).get("value").asDouble(), 1e-9);
+            assertEquals(gbceAllShareIndex, updates.get(1).get("value").asDouble(), 1e-9);
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void handlesForwardedRequestsLocally() throws Exception {
+        URI other = URIS.get(1 - cluster.getOwner("TEA"));
+        long tradeCount = tradeCount(other);
+        HttpResponse<String> response = CLIENT.send(HttpRequest.newBuilder(other.resolve("/trade/record"))
+                .header("Content-Type", "application/json")
+                .header(TradeCluster.FORWARDED_HEADER, "0")
+                .POST(HttpRequest.BodyPublishers.ofString(trade("TEA", 10.0, 1)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals(tradeCount + 1, tradeCount(other));
+        HttpResponse<String> trades = CLIENT.send(HttpRequest.newBuilder(other.resolve("/trade/trades/TEA"))
+                .header(TradeCluster.FORWARDED_HEADER, "0")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(1, OBJECT_MAPPER.readTree(trades.body()).get("total").asInt());
+    }
+
+    @Test
+    @Order(6)
+    public void reportsUnavailableNodes() throws Exception {
+        URI unavailable;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unavailable = URI.create("http://localhost:" + socket.getLocalPort());
+        }
+        TradeCluster partial = new TradeCluster(List.of(URIS.get(0), unavailable), 0, Duration.ofSeconds(2), OBJECT_MAPPER);
+        assertThrows(NodeUnavailableException.class, () -> partial.calculateGBCEAllShareIndex(new LogPriceSum(0.0, 0)));
+    }
+}
@@ -1,6 +1,8 @@
 package com.sssm.controller;
 
-
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sssm.domain.StockPrices;
+import com.sssm.domain.StockValuation;
 import com.sssm.exception.InvalidDataException;
 import com.sssm.exception.NoDataException;
 import com.sssm.service.StockService;
@@ -10,11 +12,19 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -22,6 +32,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(StockController.class)
 public class StockControllerTest {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -36,6 +48,16 @@ public class StockControllerTest {
                 .andExpect(jsonPath("$", is(1.8891)));
     }
 
+    @Test
+    public void calculateDividendYieldInBinary() throws Exception {
+        Mockito.when(stockService.calculateDividendYield("TEA", 100.0)).thenReturn(1.8891);
+        byte[] response = mockMvc.perform(get("/stock/dividend-yield/TEA/100.0")
+                        .accept(TradeBinaryMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(1.8891, ByteBuffer.wrap(response).getDouble());
+    }
+
     @Test
     public void calculateDividendYieldInvalidData() throws Exception {
         Mockito.when(stockService.calculateDividendYield("TEA", 0.0)).thenThrow(new InvalidDataException("Please enter a valid price for the calculation."));
@@ -71,4 +93,36 @@ public class StockControllerTest {
         mockMvc.perform(get("/stock/pe-ratio/HOP/10.0"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void calculateValuations() throws Exception {
+        List<StockPrices> stockPricesList = Collections.singletonList(new StockPrices("TEA", 10.0, 5.0));
+        Mockito.when(stockService.calculateValuations(stockPricesList)).thenReturn(Collections.singletonList(
+                new StockValuation("TEA", new double[]{0.8, 1.6}, new double[]{12.5, 3.125})));
+        mockMvc.perform(post("/stock/valuations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stockPricesList)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].symbol", is("TEA")))
+                .andExpect(jsonPath("$[0].dividendYields[1]", is(1.6)))
+                .andExpect(jsonPath("$[0].peRatios[1]", is(3.125)));
+    }
+
+    @Test
+    public void calculateValuationsNoData() throws Exception {
+        Mockito.when(stockService.calculateValuations(anyList())).thenThrow(new NoDataException("Stock with symbol: HOP not found."));
+        mockMvc.perform(post("/stock/valuations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Collections.singletonList(new StockPrices("HOP", 10.0)))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void calculateValuationsNullStock() throws Exception {
+        Mockito.when(stockService.calculateValuations(anyList())).thenThrow(new InvalidDataException("Please provide the stock and prices to calculate."));
+        mockMvc.perform(post("/stock/valuations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[null]"))
+                .andExpect(status().isBadRequest());
+    }
+}
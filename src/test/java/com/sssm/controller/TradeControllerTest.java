@@ -1,11 +1,22 @@
 package com.sssm.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sssm.domain.Bar;
+import com.sssm.domain.LeaderboardEntry;
+import com.sssm.domain.LogPriceSum;
+import com.sssm.domain.MarketDataUpdate;
 import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeReceipt;
+import com.sssm.domain.TradeResult;
+import com.sssm.domain.TradeStatus;
 import com.sssm.domain.TradeType;
 import com.sssm.exception.InvalidDataException;
 import com.sssm.exception.NoDataException;
+import com.sssm.exception.NodeUnavailableException;
+import com.sssm.exception.PipelineDisabledException;
 import com.sssm.service.TradeService;
+import com.sssm.stream.MarketDataPublisher;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -15,12 +26,27 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -35,6 +61,9 @@ public class TradeControllerTest {
     @MockBean
     private TradeService tradeService;
 
+    @MockBean
+    private MarketDataPublisher marketDataPublisher;
+
     public TradeControllerTest() {
     }
 
@@ -79,6 +108,52 @@ public class TradeControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void submitTrade() throws Exception {
+        Trade trade = newTrade("TEA", 10);
+        Mockito.when(tradeService.submitTrade(any(Trade.class))).thenReturn(new TradeReceipt(42, trade));
+        mockMvc.perform(post("/trade/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(trade)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sequence", is(42)))
+                .andExpect(jsonPath("$.trade.symbol", is("TEA")));
+    }
+
+    @Test
+    public void submitTradePipelineDisabled() throws Exception {
+        Mockito.when(tradeService.submitTrade(any(Trade.class))).thenThrow(new PipelineDisabledException("The trade pipeline is not enabled."));
+        mockMvc.perform(post("/trade/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newTrade("TEA", 10))))
+                .andExpect(status().isNotImplemented());
+    }
+
+    @Test
+    public void recordTrades() throws Exception {
+        Trade trade = newTrade("TEA", 10);
+        Trade trade1 = newTrade("TEA", 0);
+        Mockito.when(tradeService.recordTrades(anyList())).thenReturn(List.of(
+                new TradeResult(TradeStatus.RECORDED, null, trade),
+                new TradeResult(TradeStatus.INVALID, "Please enter a valid quantity to record the trade.", trade1)));
+        mockMvc.perform(post("/trade/record-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(trade, trade1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("RECORDED")))
+                .andExpect(jsonPath("$[1].status", is("INVALID")))
+                .andExpect(jsonPath("$[1].trade.quantity", is(0)));
+    }
+
+    @Test
+    public void recordTradesEmptyBatch() throws Exception {
+        Mockito.when(tradeService.recordTrades(anyList())).thenThrow(new InvalidDataException("Please provide at least one trade to record."));
+        mockMvc.perform(post("/trade/record-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void calculateVolumeWeightedStockPrice() throws Exception {
         Mockito.when(tradeService.calculateVolumeWeightedStockPrice("POP")).thenReturn(23.59);
@@ -87,6 +162,50 @@ public class TradeControllerTest {
                 .andExpect(jsonPath("$", is(23.59)));
     }
 
+    @Test
+    public void recordTradeInBinary() throws Exception {
+        Trade trade = newTrade("TEA", 10);
+        trade.setTradeTimestampNanos(1_650_000_000_000_000_000L);
+        Mockito.when(tradeService.recordTrade(any(Trade.class))).thenReturn(trade);
+        ByteBuffer request = ByteBuffer.allocate(25);
+        request.put((byte) 3).put("TEA".getBytes(StandardCharsets.US_ASCII)).put((byte) TradeType.BUY.ordinal())
+                .putDouble(100.0).putInt(10).putLong(0);
+        byte[] response = mockMvc.perform(post("/trade/record")
+                        .contentType(TradeBinaryMessageConverter.MEDIA_TYPE)
+                        .accept(TradeBinaryMessageConverter.MEDIA_TYPE)
+                        .content(request.array()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TradeBinaryMessageConverter.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        Mockito.verify(tradeService).recordTrade(newTrade("TEA", 10));
+        ByteBuffer expected = ByteBuffer.allocate(25);
+        expected.put((byte) 3).put("TEA".getBytes(StandardCharsets.US_ASCII)).put((byte) TradeType.BUY.ordinal())
+                .putDouble(100.0).putInt(10).putLong(1_650_000_000_000_000_000L);
+        assertArrayEquals(expected.array(), response);
+    }
+
+    @Test
+    public void recordTradeInBinaryNaNPrice() throws Exception {
+        ByteBuffer request = ByteBuffer.allocate(25);
+        request.put((byte) 3).put("TEA".getBytes(StandardCharsets.US_ASCII)).put((byte) TradeType.BUY.ordinal())
+                .putDouble(Double.NaN).putInt(10).putLong(0);
+        mockMvc.perform(post("/trade/record")
+                        .contentType(TradeBinaryMessageConverter.MEDIA_TYPE)
+                        .content(request.array()))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(tradeService, Mockito.never()).recordTrade(any(Trade.class));
+    }
+
+    @Test
+    public void calculateVolumeWeightedStockPriceInBinary() throws Exception {
+        Mockito.when(tradeService.calculateVolumeWeightedStockPrice("POP")).thenReturn(23.59);
+        byte[] response = mockMvc.perform(get("/trade/volume-weighted-stock-price/POP")
+                        .accept(TradeBinaryMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(23.59, ByteBuffer.wrap(response).getDouble());
+    }
+
     @Test
     public void calculateVolumeWeightedStockPriceInvalidData() throws Exception {
         Mockito.when(tradeService.calculateVolumeWeightedStockPrice(" ")).thenThrow(new InvalidDataException("Stock symbol can not be empty."));
@@ -102,6 +221,42 @@ public class TradeControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void calculateVolumeWeightedStockPrices() throws Exception {
+        Mockito.when(tradeService.calculateVolumeWeightedStockPrices(List.of("POP", "GIN"))).thenReturn(Map.of("POP", 23.59, "GIN", 10.0));
+        mockMvc.perform(post("/trade/volume-weighted-stock-prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"POP\",\"GIN\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.POP", is(23.59)))
+                .andExpect(jsonPath("$.GIN", is(10.0)));
+    }
+
+    @Test
+    public void calculateVolumeWeightedStockPricesNoStockData() throws Exception {
+        Mockito.when(tradeService.calculateVolumeWeightedStockPrices(List.of("RUN"))).thenThrow(new NoDataException("Stock with symbol: RUN not found."));
+        mockMvc.perform(post("/trade/volume-weighted-stock-prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"RUN\"]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void calculateVolumeWeightedStockPriceNodeUnavailable() throws Exception {
+        Mockito.when(tradeService.calculateVolumeWeightedStockPrice("GIN"))
+                .thenThrow(new NodeUnavailableException("Cluster node http://localhost:8081 is unavailable.", null));
+        mockMvc.perform(get("/trade/volume-weighted-stock-price/GIN"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void calculateGBCEAllShareIndexNodeUnavailable() throws Exception {
+        Mockito.when(tradeService.calculateGBCEAllShareIndex())
+                .thenThrow(new NodeUnavailableException("Cluster node http://localhost:8081 is unavailable.", null));
+        mockMvc.perform(get("/trade/gbce"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     public void calculateGBCEAllShareIndex() throws Exception {
         Mockito.when(tradeService.calculateGBCEAllShareIndex()).thenReturn(147.89);
@@ -109,4 +264,66 @@ public class TradeControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", is(147.89)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getLogPriceSum() throws Exception {
+        Mockito.when(tradeService.getLogPriceSum()).thenReturn(new LogPriceSum(9.5, 2));
+        mockMvc.perform(get("/trade/gbce/log-price-sum"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logPriceSum", is(9.5)))
+                .andExpect(jsonPath("$.tradeCount", is(2)));
+    }
+
+    @Test
+    public void getTrades() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2022, 2, 1, 10, 0);
+        Mockito.when(tradeService.getTrades("TEA", from, from.plusMinutes(5), 0, 1))
+                .thenReturn(new TradePage(List.of(newTrade("TEA", 10)), 3, 1));
+        mockMvc.perform(get("/trade/trades/TEA?from=2022-02-01T10:00:00&to=2022-02-01T10:05:00&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades[0].quantity", is(10)))
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.nextOffset", is(1)));
+    }
+
+    @Test
+    public void getBars() throws Exception {
+        Mockito.when(tradeService.getBars("TEA", "1s", 5)).thenReturn(List.of(new Bar(null, 10.0, 12.0, 9.0, 11.0, 30)));
+        mockMvc.perform(get("/trade/bars/TEA?resolution=1s&count=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].high", is(12.0)))
+                .andExpect(jsonPath("$[0].volume", is(30)));
+    }
+
+    @Test
+    public void getTopSymbols() throws Exception {
+        Mockito.when(tradeService.getTopSymbols("notional", 2))
+                .thenReturn(List.of(new LeaderboardEntry("POP", 4000.0), new LeaderboardEntry("TEA", 1000.0)));
+        mockMvc.perform(get("/trade/top?metric=notional&count=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].symbol", is("POP")))
+                .andExpect(jsonPath("$[1].value", is(1000.0)));
+    }
+
+    @Test
+    public void streamMarketData() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        Mockito.when(marketDataPublisher.subscribe(List.of("TEA", "GIN"), true)).thenReturn(emitter);
+        MvcResult mvcResult = mockMvc.perform(get("/trade/stream?symbols=TEA,GIN&gbce=true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name(MarketDataPublisher.VWSP_EVENT).data(new MarketDataUpdate("TEA", 23.59)));
+        emitter.complete();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:vwsp")))
+                .andExpect(content().string(containsString("\"value\":23.59")));
+    }
+
+    @Test
+    public void streamMarketDataNoStockData() throws Exception {
+        Mockito.when(marketDataPublisher.subscribe(List.of("RUN"), false)).thenThrow(new NoDataException("Stock with symbol: RUN not found."));
+        mockMvc.perform(get("/trade/stream?symbols=RUN"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,27 @@
+package com.sssm.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AllShareIndexTest {
+
+    @Test
+    public void combiningStripesKeepsTheCompensation() {
+        AllShareIndex allShareIndex = new AllShareIndex(2);
+        double price = Math.nextUp(1.0);
+        allShareIndex.add(0, 1e300);
+        allShareIndex.add(1, 1e-300);
+        for (int i = 0; i < 100_000; i++) {
+            allShareIndex.add(0, price);
+        }
+        double expected = new BigDecimal(Math.log(1e300))
+                .add(new BigDecimal(Math.log(1e-300)))
+                .add(new BigDecimal(Math.log(price)).multiply(BigDecimal.valueOf(100_000)))
+                .doubleValue();
+        assertEquals(expected, allShareIndex.getLogPriceSum().getLogPriceSum(), 1e-20);
+        assertEquals(100_002, allShareIndex.getLogPriceSum().getTradeCount());
+    }
+}
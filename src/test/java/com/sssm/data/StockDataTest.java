@@ -0,0 +1,78 @@
+package com.sssm.data;
+
+import com.sssm.domain.Stock;
+import com.sssm.domain.StockType;
+import com.sssm.exception.InvalidDataException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockDataTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Stock newStock(String symbol, StockType stockType) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setType(stockType);
+        stock.setLastDividend(8.0);
+        stock.setParValue(100.0);
+        return stock;
+    }
+
+    @Test
+    public void rejectsInvalidStocksAndKeepsTheCurrentTable() {
+        StockData stockData = new StockData();
+        stockData.load(List.of(newStock("TEA", StockType.COMMON)));
+        StockTable stockTable = stockData.getStockTable();
+
+        Stock negativeParValue = newStock("GIN", StockType.PREFERRED);
+        negativeParValue.setParValue(-1.0);
+        Stock nanDividend = newStock("GIN", StockType.COMMON);
+        nanDividend.setLastDividend(Double.NaN);
+        List<Stock> withNull = new ArrayList<>();
+        withNull.add(null);
+
+        assertThrows(InvalidDataException.class, () -> stockData.load(List.of(newStock(null, StockType.COMMON))));
+        assertThrows(InvalidDataException.class, () -> stockData.load(List.of(newStock("GIN", null))));
+        assertThrows(InvalidDataException.class, () -> stockData.load(List.of(negativeParValue)));
+        assertThrows(InvalidDataException.class, () -> stockData.load(List.of(nanDividend)));
+        assertThrows(InvalidDataException.class, () -> stockData.load(withNull));
+        assertSame(stockTable, stockData.getStockTable());
+    }
+
+    @Test
+    public void reloadKeepsTheCurrentTableOnInvalidFile() throws IOException {
+        StockData stockData = new StockData();
+        stockData.load(List.of(newStock("TEA", StockType.COMMON)));
+        StockTable stockTable = stockData.getStockTable();
+        Path path = tempDir.resolve("stock-data.json");
+
+        Files.writeString(path, "[{\"type\": \"COMMON\", \"lastDividend\": 8, \"parValue\": 100}]");
+        stockData.reload(path);
+        assertSame(stockTable, stockData.getStockTable());
+
+        Files.writeString(path, "[{\"symbol\": \"GIN\", \"type\": \"PREFERRED\", \"fixedDividend\": 0.02, \"parValue\": 100}]");
+        stockData.reload(path);
+        assertEquals(List.of("GIN"), stockData.getStockTable().getSymbols());
+    }
+
+    @Test
+    public void tellsListenersAboutTheNewTable() {
+        StockData stockData = new StockData();
+        List<StockTable> tables = new ArrayList<>();
+        stockData.addListener(tables::add);
+
+        stockData.load(List.of(newStock("TEA", StockType.COMMON)));
+
+        assertEquals(List.of(stockData.getStockTable()), tables);
+    }
+}
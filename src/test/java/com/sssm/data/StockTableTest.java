@@ -0,0 +1,48 @@
+package com.sssm.data;
+
+import com.sssm.domain.Stock;
+import com.sssm.domain.StockType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockTableTest {
+
+    private static Stock newStock(String symbol, StockType stockType, double lastDividend) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setType(stockType);
+        stock.setFixedDividend(2.0);
+        stock.setLastDividend(lastDividend);
+        stock.setParValue(100.0);
+        return stock;
+    }
+
+    @Test
+    public void precomputesDividends() {
+        StockTable stockTable = new StockTable(new SymbolTable(), List.of(
+                newStock("TEA", StockType.COMMON, 8.0), newStock("GIN", StockType.PREFERRED, 8.0)));
+        assertEquals(8.0, stockTable.getDividend(stockTable.find("TEA")));
+        assertEquals(200.0, stockTable.getDividend(stockTable.find("GIN")));
+        assertEquals(SymbolTable.UNKNOWN, stockTable.find("BEV"));
+        assertEquals(List.of("TEA", "GIN"), stockTable.getSymbols());
+    }
+
+    @Test
+    public void reloadLeavesPreviousTableUnchanged() {
+        SymbolTable symbolTable = new SymbolTable();
+        Stock tea = newStock("TEA", StockType.COMMON, 8.0);
+        StockTable stockTable = new StockTable(symbolTable, List.of(tea, newStock("GIN", StockType.PREFERRED, 8.0)));
+        tea.setLastDividend(0.0);
+        StockTable reloaded = new StockTable(symbolTable, List.of(newStock("TEA", StockType.COMMON, 13.0)));
+
+        assertEquals(8.0, stockTable.getDividend(stockTable.find("TEA")));
+        assertEquals(8.0, stockTable.getStock(stockTable.find("TEA")).getLastDividend());
+        assertNotEquals(SymbolTable.UNKNOWN, stockTable.find("GIN"));
+        assertEquals(stockTable.find("TEA"), reloaded.find("TEA"));
+        assertEquals(13.0, reloaded.getDividend(reloaded.find("TEA")));
+        assertEquals(SymbolTable.UNKNOWN, reloaded.find("GIN"));
+    }
+}
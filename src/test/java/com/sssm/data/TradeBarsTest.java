@@ -0,0 +1,67 @@
+package com.sssm.data;
+
+import com.sssm.domain.Bar;
+import com.sssm.domain.BarResolution;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TradeBarsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 2, 1, 10, 0);
+
+    private static Trade newTrade(double price, int quantity, LocalDateTime timestamp) {
+        Trade trade = new Trade();
+        trade.setSymbol("TEA");
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(price);
+        trade.setQuantity(quantity);
+        trade.setTradeTimestamp(timestamp);
+        return trade;
+    }
+
+    @Test
+    public void aggregatesTradesPerResolution() {
+        TradeBars tradeBars = new TradeBars(10);
+        tradeBars.add(newTrade(10.0, 1, START));
+        tradeBars.add(newTrade(12.0, 2, START.plusNanos(500_000_000)));
+        tradeBars.add(newTrade(9.0, 3, START.plusSeconds(30)));
+        tradeBars.add(newTrade(11.0, 4, START.plusMinutes(1)));
+
+        List<Bar> secondBars = tradeBars.getBars(BarResolution.ONE_SECOND, 10);
+        assertEquals(3, secondBars.size());
+        assertEquals(new Bar(START, 10.0, 12.0, 10.0, 12.0, 3), secondBars.get(0));
+
+        List<Bar> minuteBars = tradeBars.getBars(BarResolution.ONE_MINUTE, 10);
+        assertEquals(List.of(new Bar(START, 10.0, 12.0, 9.0, 9.0, 6), new Bar(START.plusMinutes(1), 11.0, 11.0, 11.0, 11.0, 4)), minuteBars);
+
+        assertEquals(List.of(new Bar(START, 10.0, 12.0, 9.0, 11.0, 10)), tradeBars.getBars(BarResolution.FIVE_MINUTES, 10));
+    }
+
+    @Test
+    public void keepsOnlyTheLatestBars() {
+        TradeBars tradeBars = new TradeBars(3);
+        for (int i = 0; i < 5; i++) {
+            tradeBars.add(newTrade(10.0 + i, 1, START.plusSeconds(i)));
+        }
+        tradeBars.add(newTrade(20.0, 1, START.plusSeconds(3)));
+        tradeBars.add(newTrade(30.0, 1, START));
+
+        List<Bar> bars = tradeBars.getBars(BarResolution.ONE_SECOND, 10);
+        assertEquals(3, bars.size());
+        assertEquals(START.plusSeconds(2), bars.get(0).getStart());
+        assertEquals(new Bar(START.plusSeconds(3), 13.0, 20.0, 13.0, 13.0, 2), bars.get(1));
+        assertEquals(2, tradeBars.getBars(BarResolution.ONE_SECOND, 2).size());
+        assertEquals(START.plusSeconds(4), tradeBars.getBars(BarResolution.ONE_SECOND, 1).get(0).getStart());
+    }
+
+    @Test
+    public void rejectsAnEmptyHistory() {
+        assertThrows(IllegalArgumentException.class, () -> new TradeBars(0));
+    }
+}
@@ -0,0 +1,66 @@
+package com.sssm.data;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TradeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static Trade newTrade(String symbol, int quantity, double price, TradeType tradeType) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(tradeType);
+        trade.setTradePrice(price);
+        trade.setQuantity(quantity);
+        trade.setTradeTimestamp(LocalDateTime.now());
+        return trade;
+    }
+
+    @Test
+    public void replaysTradesAfterReopen() throws IOException {
+        Path path = directory.resolve("trades.journal");
+        Trade trade = newTrade("TEA", 2, 52.2, TradeType.BUY);
+        Trade trade1 = newTrade("GIN", 3, 42.2, TradeType.SELL);
+        Trade trade2 = newTrade("POP", 4, 12.5, TradeType.BUY);
+        try (TradeJournal tradeJournal = new TradeJournal(path, TradeJournal.FsyncPolicy.NEVER, 100, 1)) {
+            tradeJournal.append(trade);
+            tradeJournal.appendAll(List.of(trade1));
+        }
+        try (TradeJournal tradeJournal = new TradeJournal(path, TradeJournal.FsyncPolicy.ALWAYS, 100, 1)) {
+            tradeJournal.append(trade2);
+        }
+        List<Trade> replayed = new ArrayList<>();
+        try (TradeJournal tradeJournal = new TradeJournal(path, TradeJournal.FsyncPolicy.NEVER, 100, 1)) {
+            assertEquals(3, tradeJournal.replay(replayed::add));
+        }
+        assertEquals(List.of(trade, trade1, trade2), replayed);
+    }
+
+    @Test
+    public void replaysAcrossChunks() throws IOException {
+        Path path = directory.resolve("trades.journal");
+        int count = 1024 * 1024 / TradeJournal.RECORD_SIZE + 10;
+        try (TradeJournal tradeJournal = new TradeJournal(path, TradeJournal.FsyncPolicy.INTERVAL, 10, 1)) {
+            for (int i = 0; i < count; i++) {
+                tradeJournal.append(newTrade("TEA", i + 1, 10.0, TradeType.BUY));
+            }
+        }
+        List<Trade> replayed = new ArrayList<>();
+        try (TradeJournal tradeJournal = new TradeJournal(path, TradeJournal.FsyncPolicy.NEVER, 100, 1)) {
+            assertEquals(count, tradeJournal.replay(replayed::add));
+        }
+        assertEquals(count, replayed.get(count - 1).getQuantity());
+    }
+}
@@ -0,0 +1,107 @@
+package com.sssm.data;
+
+import com.sssm.clock.TradeClock;
+import com.sssm.domain.LeaderboardEntry;
+import com.sssm.domain.LeaderboardMetric;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TradeLeaderboardsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 2, 1, 10, 0);
+
+    private static Trade newTrade(String symbol, double price, int quantity, LocalDateTime timestamp) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(price);
+        trade.setQuantity(quantity);
+        trade.setTradeTimestamp(timestamp);
+        return trade;
+    }
+
+    @Test
+    public void ranksSymbolsAndDropsExpiredTrades() {
+        SymbolTable symbolTable = new SymbolTable();
+        TradeLeaderboards leaderboards = new TradeLeaderboards(symbolTable);
+        TradeWindow[] windows = new TradeWindow[3];
+        String[] symbols = {"TEA", "POP", "ALE"};
+        for (String symbol : symbols) {
+            int symbolId = symbolTable.intern(symbol);
+            windows[symbolId] = new TradeWindow(symbol, Duration.ofMinutes(15), Duration.ofMinutes(15),
+                    leaderboards.listener(symbolId));
+        }
+        windows[0].add(newTrade("TEA", 10.0, 100, START));
+        windows[1].add(newTrade("POP", 100.0, 20, START.plusMinutes(5)));
+        windows[1].add(newTrade("POP", 100.0, 20, START.plusMinutes(6)));
+        windows[2].add(newTrade("ALE", 1.0, 50, START.plusMinutes(7)));
+
+        assertEquals(List.of(new LeaderboardEntry("TEA", 100), new LeaderboardEntry("ALE", 50)),
+                leaderboards.getTop(LeaderboardMetric.VOLUME, 2));
+        assertEquals(List.of(new LeaderboardEntry("POP", 4000.0), new LeaderboardEntry("TEA", 1000.0),
+                new LeaderboardEntry("ALE", 50.0)), leaderboards.getTop(LeaderboardMetric.NOTIONAL, 10));
+        assertEquals("POP", leaderboards.getTop(LeaderboardMetric.TRADE_COUNT, 1).get(0).getSymbol());
+
+        windows[0].getSize(TradeClock.toEpochNanos(START.plusMinutes(15)));
+        assertEquals(List.of(new LeaderboardEntry("ALE", 50), new LeaderboardEntry("POP", 40)),
+                leaderboards.getTop(LeaderboardMetric.VOLUME, 3));
+    }
+
+    @Test
+    public void leaderboardMatchesSortedValues() {
+        Random random = new Random(7);
+        Leaderboard leaderboard = new Leaderboard();
+        double[] values = new double[200];
+        for (int i = 0; i < 20_000; i++) {
+            int symbolId = random.nextInt(values.length);
+            values[symbolId] = random.nextInt(4) == 0 ? 0.0 : random.nextInt(1000);
+            leaderboard.update(symbolId, values[symbolId]);
+        }
+        double[] expected = Arrays.stream(values).filter(value -> value > 0.0).boxed()
+                .sorted((left, right) -> Double.compare(right, left)).limit(25).mapToDouble(Double::doubleValue).toArray();
+        double[] actual = IntStream.of(leaderboard.top(25)).mapToDouble(leaderboard::getValue).toArray();
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void appliesTheLatestTotalsOfConcurrentWriters() throws Exception {
+        SymbolTable symbolTable = new SymbolTable();
+        TradeLeaderboards leaderboards = new TradeLeaderboards(symbolTable);
+        String[] symbols = {"TEA", "POP", "ALE", "GIN"};
+        ExecutorService executor = Executors.newFixedThreadPool(symbols.length);
+        List<Future<?>> writers = new ArrayList<>();
+        for (String symbol : symbols) {
+            int symbolId = symbolTable.intern(symbol);
+            TradeWindow window = new TradeWindow(symbol, Duration.ofMinutes(15), Duration.ofMinutes(15),
+                    leaderboards.listener(symbolId));
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000 * (symbolId + 1); i++) {
+                    window.add(newTrade(symbol, 1.0, 1, START));
+                    if (i % 1000 == 0) leaderboards.getTop(LeaderboardMetric.TRADE_COUNT, 2);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        assertEquals(List.of(new LeaderboardEntry("GIN", 40_000), new LeaderboardEntry("ALE", 30_000),
+                new LeaderboardEntry("POP", 20_000), new LeaderboardEntry("TEA", 10_000)),
+                leaderboards.getTop(LeaderboardMetric.VOLUME, 4));
+    }
+}
@@ -0,0 +1,199 @@
+package com.sssm.data;
+
+import com.sssm.clock.TradeClock;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradePage;
+import com.sssm.domain.TradeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TradeWindowTest {
+
+    private static final long NOW = TradeClock.toEpochNanos(LocalDateTime.of(2022, 2, 1, 10, 0));
+
+    private static long minutes(long minutes) {
+        return TimeUnit.MINUTES.toNanos(minutes);
+    }
+
+    private static long seconds(long seconds) {
+        return TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    private static Trade newTrade(double price, long timestamp) {
+        Trade trade = new Trade();
+        trade.setSymbol("TEA");
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(price);
+        trade.setQuantity(1);
+        trade.setTradeTimestampNanos(timestamp);
+        return trade;
+    }
+
+    @Test
+    public void dropsExpiredTrades() {
+        long now = NOW;
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        tradeWindow.add(newTrade(10.0, now - minutes(20)));
+        tradeWindow.add(newTrade(20.0, now - minutes(10)));
+        tradeWindow.add(newTrade(30.0, now));
+        List<Trade> trades = tradeWindow.getTrades(now);
+        assertEquals(2, trades.size());
+        assertEquals(20.0, trades.get(0).getTradePrice());
+        assertEquals(30.0, trades.get(1).getTradePrice());
+        assertTrue(tradeWindow.getTrades(now + minutes(16)).isEmpty());
+    }
+
+    @Test
+    public void cachedVolumeWeightedStockPriceGoesStale() {
+        long now = NOW;
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        tradeWindow.add(newTrade(10.0, now - minutes(10)));
+        assertNull(tradeWindow.getCachedVolumeWeightedStockPrice(now));
+        assertEquals(10.0, tradeWindow.getVolumeWeightedStockPrice(now));
+        assertEquals(10.0, tradeWindow.getCachedVolumeWeightedStockPrice(now + minutes(4)).getValue());
+
+        tradeWindow.add(newTrade(20.0, now));
+        assertNull(tradeWindow.getCachedVolumeWeightedStockPrice(now));
+        assertEquals(15.0, tradeWindow.getVolumeWeightedStockPrice(now));
+        assertNotNull(tradeWindow.getCachedVolumeWeightedStockPrice(now + minutes(4)));
+        assertNull(tradeWindow.getCachedVolumeWeightedStockPrice(now + minutes(5)));
+        assertEquals(20.0, tradeWindow.getVolumeWeightedStockPrice(now + minutes(5)));
+    }
+
+    @Test
+    public void rebuildsStoredTrades() {
+        long now = NOW;
+        Trade trade = newTrade(12.5, now);
+        trade.setType(TradeType.SELL);
+        trade.setQuantity(7);
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        tradeWindow.add(trade);
+        assertEquals(List.of(trade), tradeWindow.getTrades(now));
+    }
+
+    @Test
+    public void addsOnlyTradesInTimestampOrder() {
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        tradeWindow.add(newTrade(10.0, NOW - minutes(5)));
+        Trade older = newTrade(20.0, NOW - minutes(6));
+        Trade newer = newTrade(30.0, NOW - minutes(4));
+        Trade outOfOrder = newTrade(40.0, NOW - minutes(5));
+        Trade newest = newTrade(50.0, NOW - minutes(3));
+        assertEquals(List.of(newer, newest), tradeWindow.addAllInOrder(List.of(older, newer, outOfOrder, newest)));
+        assertEquals(List.of(NOW - minutes(5), NOW - minutes(4), NOW - minutes(3)),
+                tradeWindow.getTrades(NOW).stream().map(Trade::getTradeTimestampNanos).collect(Collectors.toList()));
+        assertEquals(30.0, tradeWindow.getVolumeWeightedStockPrice(NOW), 1e-9);
+    }
+
+    @Test
+    public void keepsTradeOrderAcrossResize() {
+        long now = NOW;
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        for (int i = 0; i < 100; i++) {
+            tradeWindow.add(newTrade(i + 1, now - minutes(30) + seconds(i * 15L)));
+        }
+        List<Trade> trades = tradeWindow.getTrades(now);
+        assertEquals(39, trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            assertEquals(62 + i, trades.get(i).getTradePrice());
+        }
+    }
+
+    @Test
+    public void keepsHistoryBeyondTheWindow() {
+        long now = NOW;
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15), Duration.ofMinutes(60));
+        tradeWindow.add(newTrade(10.0, now - minutes(90)));
+        tradeWindow.add(newTrade(20.0, now - minutes(40)));
+        tradeWindow.add(newTrade(30.0, now - minutes(10)));
+        assertEquals(30.0, tradeWindow.getVolumeWeightedStockPrice(now));
+        assertEquals(1, tradeWindow.getSize(now));
+        TradePage tradePage = tradeWindow.getTrades(Long.MIN_VALUE, Long.MAX_VALUE, 0, 10, now);
+        assertEquals(2, tradePage.getTotal());
+        assertEquals(20.0, tradePage.getTrades().get(0).getTradePrice());
+    }
+
+    @Test
+    public void pagesThroughATimeRange() {
+        long start = NOW - minutes(30);
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15), Duration.ofMinutes(60));
+        for (int i = 0; i < 100; i++) {
+            tradeWindow.add(newTrade(i, start + seconds(i)));
+        }
+        long now = start + minutes(30);
+
+        TradePage firstPage = tradeWindow.getTrades(start + seconds(10), start + seconds(35), 0, 20, now);
+        assertEquals(25, firstPage.getTotal());
+        assertEquals(20, firstPage.getTrades().size());
+        assertEquals(10.0, firstPage.getTrades().get(0).getTradePrice());
+        assertEquals(20, firstPage.getNextOffset());
+
+        TradePage lastPage = tradeWindow.getTrades(start + seconds(10), start + seconds(35), 20, 20, now);
+        assertEquals(5, lastPage.getTrades().size());
+        assertEquals(34.0, lastPage.getTrades().get(4).getTradePrice());
+        assertNull(lastPage.getNextOffset());
+
+        assertTrue(tradeWindow.getTrades(start - minutes(5), start, 0, 20, now).getTrades().isEmpty());
+        assertEquals(100, tradeWindow.getTrades(start, Long.MAX_VALUE, 0, 20, now).getTotal());
+    }
+
+    @Test
+    public void storesLateTradesAtTheNewestTimestamp() {
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        tradeWindow.add(newTrade(10.0, NOW));
+        tradeWindow.add(newTrade(20.0, NOW - seconds(1)));
+        tradeWindow.add(newTrade(30.0, NOW + seconds(1)));
+        List<Trade> trades = tradeWindow.getTrades(NOW + seconds(1));
+        assertEquals(List.of(NOW, NOW, NOW + seconds(1)),
+                List.of(trades.get(0).getTradeTimestampNanos(), trades.get(1).getTradeTimestampNanos(), trades.get(2).getTradeTimestampNanos()));
+        assertEquals(2, tradeWindow.getTrades(NOW, NOW + 1, 0, 10, NOW + seconds(1)).getTotal());
+        assertEquals(NOW + seconds(1), tradeWindow.getNewestTimestampNanos());
+    }
+
+    @Test
+    public void concurrentWritersKeepTimestampOrder() throws Exception {
+        int writers = 4;
+        int tradesPerWriter = 50_000;
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        AtomicLong clock = new AtomicLong(NOW);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < tradesPerWriter; i++) {
+                    // Stamped outside the window lock, as the services do
+                    Trade trade = newTrade(10.0, clock.incrementAndGet());
+                    if (i % 64 == 0) Thread.yield();
+                    tradeWindow.add(trade);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        List<Trade> trades = tradeWindow.getTrades(clock.get());
+        assertEquals(writers * tradesPerWriter, trades.size());
+        for (int i = 1; i < trades.size(); i++) {
+            assertTrue(trades.get(i).getTradeTimestampNanos() >= trades.get(i - 1).getTradeTimestampNanos());
+        }
+        assertEquals(trades.size(), tradeWindow.getTrades(NOW, clock.get() + 1, 0, 10, clock.get()).getTotal());
+    }
+}
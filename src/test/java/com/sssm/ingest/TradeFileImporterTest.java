@@ -0,0 +1,172 @@
+package com.sssm.ingest;
+
+import com.sssm.clock.TradeClock;
+import com.sssm.data.StockTable;
+import com.sssm.data.SymbolTable;
+import com.sssm.data.TradeWindow;
+import com.sssm.domain.Stock;
+import com.sssm.domain.StockType;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import com.sssm.metrics.TradeMetrics;
+import com.sssm.repository.StockRepository;
+import com.sssm.repository.TradeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class TradeFileImporterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 2, 1, 10, 0);
+
+    private final TradeRepository tradeRepository = Mockito.mock(TradeRepository.class);
+    private final StockRepository stockRepository = Mockito.mock(StockRepository.class);
+    private final Map<String, TradeWindow> windows = new HashMap<>();
+    private final Map<String, List<Trade>> stored = new HashMap<>();
+
+    @TempDir
+    Path directory;
+
+    private static Stock newStock(String symbol) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setType(StockType.COMMON);
+        stock.setLastDividend(8.0);
+        stock.setParValue(100.0);
+        return stock;
+    }
+
+    private TradeFileImporter newImporter(int chunkSize) {
+        return new TradeFileImporter(tradeRepository, stockRepository, new TradeMetrics(new SimpleMeterRegistry()),
+                symbol -> true, 4, chunkSize);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(stockRepository.getStockTable())
+                .thenReturn(new StockTable(new SymbolTable(), List.of(newStock("TEA"), newStock("POP"))));
+        Mockito.when(tradeRepository.saveAllInOrder(anyString(), anyList())).thenAnswer(invocation -> {
+            String symbol = invocation.getArgument(0);
+            List<Trade> trades = windows.computeIfAbsent(symbol, key -> new TradeWindow(key, Duration.ofMinutes(15)))
+                    .addAllInOrder(invocation.getArgument(1));
+            stored.computeIfAbsent(symbol, key -> new ArrayList<>()).addAll(trades);
+            return trades;
+        });
+    }
+
+    @Test
+    public void importsCsvChunksInFileOrder() throws IOException {
+        long start = TradeClock.toEpochNanos(START);
+        StringBuilder csv = new StringBuilder("symbol,type,price,quantity,timestamp\n");
+        for (int i = 0; i < 2000; i++) {
+            csv.append(i % 2 == 0 ? "TEA" : "POP").append(i % 3 == 0 ? ",SELL," : ",BUY,")
+                    .append(100 + i % 50).append('.').append(i % 100).append(',').append(1 + i % 7).append(',')
+                    .append(start + i * 1_000_000L).append(i % 10 == 0 ? "\r\n" : "\n");
+        }
+        csv.append("GIN,BUY,100.0,5,").append(start).append('\n')
+                .append("TEA,BUY,100.0,0,").append(start).append('\n')
+                .append("TEA,HOLD,100.0,5,").append(start).append('\n')
+                .append("TEA,BUY,abc,5,").append(start).append('\n')
+                .append("TEA,BUY,Infinity,5,").append(start).append('\n')
+                .append("TEA,BUY,NaN,5,").append(start).append('\n')
+                .append("\n")
+                .append("POP, SELL, 1e2, 3, 2022-02-01T11:00:00");
+        Path path = Files.writeString(directory.resolve("trades.csv"), csv);
+
+        TradeImportResult result = newImporter(512).importFile(path);
+
+        assertEquals(2001, result.getImported());
+        assertEquals(6, result.getRejected());
+        assertEquals(1000, stored.get("TEA").size());
+        assertEquals(1001, stored.get("POP").size());
+        Trade first = stored.get("TEA").get(0);
+        assertEquals(TradeType.SELL, first.getType());
+        assertEquals(100.0, first.getTradePrice());
+        assertEquals(1, first.getQuantity());
+        assertEquals(START, first.getTradeTimestamp());
+        assertEquals(149.99, stored.get("POP").get(999).getTradePrice());
+        Trade last = stored.get("POP").get(1000);
+        assertEquals(TradeType.SELL, last.getType());
+        assertEquals(100.0, last.getTradePrice());
+        assertEquals(START.plusHours(1), last.getTradeTimestamp());
+        for (List<Trade> trades : stored.values()) {
+            for (int i = 1; i < trades.size(); i++) {
+                assertTrue(trades.get(i).getTradeTimestampNanos() > trades.get(i - 1).getTradeTimestampNanos());
+            }
+        }
+    }
+
+    @Test
+    public void importsNdjsonAndRejectsOutOfOrderTrades() throws IOException {
+        Path path = Files.writeString(directory.resolve("trades.ndjson"),
+                "{\"symbol\":\"TEA\",\"type\":\"BUY\",\"tradePrice\":101.5,\"quantity\":10,\"tradeTimestamp\":\"2022-02-01T10:00:01\"}\n" +
+                "{\"symbol\":\"TEA\",\"type\":\"SELL\",\"tradePrice\":99,\"quantity\":4,\"tradeTimestamp\":\"2022-02-01T10:00:00\"}\n" +
+                "{\"symbol\":\"POP\",\"type\":\"SELL\",\"tradePrice\":12.5,\"quantity\":3,\"note\":{\"a\":[1]},\"tradeTimestamp\":\"2022-02-01T10:00:00\"}\n" +
+                "{\"symbol\":\"POP\",\"type\":\"BUY\",\"tradePrice\":12.5,\"quantity\":3}\n" +
+                "{\"symbol\":\"TEA\",\"type\":\"BUY\",\"tradePrice\":102.0,\n" +
+                "{\"symbol\":\"TEA\",\"type\":\"BUY\",\"tradePrice\":102.0,\"quantity\":2,\"tradeTimestamp\":\"2022-02-01T10:00:02\"}\n");
+
+        TradeImportResult result = newImporter(64).importFile(path);
+
+        assertEquals(3, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(101.5, 102.0), List.of(stored.get("TEA").get(0).getTradePrice(), stored.get("TEA").get(1).getTradePrice()));
+        assertEquals(START.plusSeconds(2), stored.get("TEA").get(1).getTradeTimestamp());
+        assertEquals(1, stored.get("POP").size());
+        assertEquals(TradeType.SELL, stored.get("POP").get(0).getType());
+    }
+
+    @Test
+    public void rejectsTradesOlderThanTheStoredTrades() throws IOException {
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        Trade liveTrade = new Trade();
+        liveTrade.setSymbol("TEA");
+        liveTrade.setType(TradeType.BUY);
+        liveTrade.setTradePrice(100.0);
+        liveTrade.setQuantity(1);
+        liveTrade.setTradeTimestamp(START.plusMinutes(1));
+        tradeWindow.add(liveTrade);
+        windows.put("TEA", tradeWindow);
+        Path path = Files.writeString(directory.resolve("trades.csv"),
+                "TEA,BUY,100.0,5,2022-02-01T10:00:00\n" +
+                "POP,BUY,100.0,5,2022-02-01T10:00:00\n" +
+                "TEA,SELL,101.0,5,2022-02-01T10:01:00\n" +
+                "TEA,SELL,102.0,5,2022-02-01T10:02:00\n");
+
+        TradeImportResult result = newImporter(64).importFile(path);
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of(101.0, 102.0), List.of(stored.get("TEA").get(0).getTradePrice(), stored.get("TEA").get(1).getTradePrice()));
+        assertEquals(1, stored.get("POP").size());
+    }
+
+    @Test
+    public void importsAFileIntoTheJournalOnce() throws IOException {
+        Path path = Files.writeString(directory.resolve("trades.csv"), "TEA,BUY,100.0,5,2022-02-01T10:00:00\n");
+        Path importLog = directory.resolve("trades.journal.imported");
+
+        assertEquals(1, newImporter(64).importFileOnce(path, importLog).getImported());
+        assertNull(newImporter(64).importFileOnce(path, importLog));
+        assertEquals(1, stored.get("TEA").size());
+
+        Files.writeString(path, "TEA,BUY,100.0,5,2022-02-01T10:00:00\nTEA,BUY,100.0,5,2022-02-01T10:00:01\n");
+        assertEquals(2, newImporter(64).importFileOnce(path, importLog).getImported());
+    }
+}
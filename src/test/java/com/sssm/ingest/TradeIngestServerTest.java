@@ -0,0 +1,100 @@
+package com.sssm.ingest;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeResult;
+import com.sssm.domain.TradeStatus;
+import com.sssm.domain.TradeType;
+import com.sssm.service.TradeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+
+public class TradeIngestServerTest {
+
+    private final TradeService tradeService = Mockito.mock(TradeService.class);
+
+    private TradeIngestServer tradeIngestServer;
+
+    private static Trade newTrade(String symbol, int quantity) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(TradeType.SELL);
+        trade.setTradePrice(100.0);
+        trade.setQuantity(quantity);
+        return trade;
+    }
+
+    private static ByteBuffer readAck(SocketChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(TradeFrameCodec.LENGTH_SIZE);
+        while (length.hasRemaining()) channel.read(length);
+        ByteBuffer body = ByteBuffer.allocate(length.flip().getInt());
+        while (body.hasRemaining()) channel.read(body);
+        return body.flip();
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Mockito.when(tradeService.recordTrades(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = invocation.getArgument(0);
+            return trades.stream()
+                    .map(trade -> new TradeResult(trade.getQuantity() > 0 ? TradeStatus.RECORDED : TradeStatus.INVALID, null, trade))
+                    .collect(Collectors.toList());
+        });
+        tradeIngestServer = new TradeIngestServer(tradeService, 0, 2, 1024);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        tradeIngestServer.close();
+    }
+
+    @Test
+    public void recordsFramesAndAcknowledgesEachTrade() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", tradeIngestServer.getPort()))) {
+            ByteBuffer frame = TradeFrameCodec.encodeTrades(List.of(newTrade("TEA", 5), newTrade("GIN", 0)));
+            ByteBuffer frame1 = TradeFrameCodec.encodeTrades(List.of(newTrade("POP", 3)));
+            channel.write(ByteBuffer.allocate(frame.remaining() + frame1.remaining()).put(frame).put(frame1).flip());
+
+            ByteBuffer ack = readAck(channel);
+            assertEquals(2, ack.getInt());
+            assertEquals(TradeStatus.RECORDED.ordinal(), ack.get());
+            assertEquals(TradeStatus.INVALID.ordinal(), ack.get());
+            ByteBuffer ack1 = readAck(channel);
+            assertEquals(1, ack1.getInt());
+            assertEquals(TradeStatus.RECORDED.ordinal(), ack1.get());
+        }
+        Mockito.verify(tradeService, Mockito.times(2)).recordTrades(anyList());
+    }
+
+    @Test
+    public void closesConnectionOnNonFinitePrice() throws IOException {
+        for (double price : new double[]{Double.NaN, Double.POSITIVE_INFINITY}) {
+            try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", tradeIngestServer.getPort()))) {
+                Trade trade = newTrade("TEA", 5);
+                trade.setTradePrice(price);
+                channel.write(TradeFrameCodec.encodeTrades(List.of(trade)));
+                assertEquals(-1, channel.read(ByteBuffer.allocate(8)));
+            }
+        }
+        Mockito.verify(tradeService, Mockito.never()).recordTrades(anyList());
+    }
+
+    @Test
+    public void closesConnectionOnOversizedFrame() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", tradeIngestServer.getPort()))) {
+            channel.write(ByteBuffer.allocate(8).putInt(4096).putInt(0).flip());
+            assertEquals(-1, channel.read(ByteBuffer.allocate(8)));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sssm.pipeline;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolBatchHandlerTest {
+
+    private static TradeEvent newEvent(String symbol, int symbolId, int quantity) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(10.0);
+        trade.setQuantity(quantity);
+        trade.setTradeTimestamp(LocalDateTime.now());
+        TradeEvent event = new TradeEvent();
+        event.set(trade, symbolId);
+        return event;
+    }
+
+    @Test
+    public void storesEachSymbolOncePerBatch() {
+        List<Integer> symbolIds = new ArrayList<>();
+        List<List<Integer>> quantities = new ArrayList<>();
+        SymbolBatchHandler handler = new SymbolBatchHandler((symbolId, tradeList) -> {
+            symbolIds.add(symbolId);
+            List<Integer> batch = new ArrayList<>();
+            tradeList.forEach(trade -> batch.add(trade.getQuantity()));
+            quantities.add(batch);
+        });
+
+        handler.onEvent(newEvent("TEA", 0, 1), 0, false);
+        handler.onEvent(newEvent("POP", 40, 2), 1, false);
+        handler.onEvent(newEvent("TEA", 0, 3), 2, false);
+        assertTrue(symbolIds.isEmpty());
+        handler.onEvent(newEvent("POP", 40, 4), 3, true);
+
+        assertEquals(List.of(0, 40), symbolIds);
+        assertEquals(List.of(List.of(1, 3), List.of(2, 4)), quantities);
+
+        handler.onEvent(newEvent("ALE", 1, 5), 4, true);
+        assertEquals(List.of(0, 40, 1), symbolIds);
+        assertEquals(List.of(5), quantities.get(2));
+    }
+
+    @Test
+    public void startsANewBatchAfterAFailedStore() {
+        List<Integer> stored = new ArrayList<>();
+        SymbolBatchHandler handler = new SymbolBatchHandler((symbolId, tradeList) -> {
+            if (tradeList.size() > 1) throw new IllegalStateException("Store failed.");
+            stored.add(tradeList.get(0).getQuantity());
+        });
+
+        handler.onEvent(newEvent("TEA", 0, 1), 0, false);
+        assertThrows(IllegalStateException.class, () -> handler.onEvent(newEvent("TEA", 0, 2), 1, true));
+        handler.onEvent(newEvent("TEA", 0, 3), 2, true);
+
+        assertEquals(List.of(3), stored);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sssm.pipeline;
+
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TradePipelineTest {
+
+    private static final int PUBLISHERS = 4;
+    private static final int TRADES_PER_PUBLISHER = 50_000;
+
+    private static Trade newTrade(int quantity) {
+        Trade trade = new Trade();
+        trade.setSymbol("TEA");
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(10.0);
+        trade.setQuantity(quantity);
+        trade.setTradeTimestamp(LocalDateTime.now());
+        return trade;
+    }
+
+    @Test
+    public void deliversEveryEventToEveryStageInSequenceOrder() throws Exception {
+        long[] headNext = new long[1];
+        AtomicLong outOfOrder = new AtomicLong();
+        AtomicLong batches = new AtomicLong();
+        AtomicLong windowQuantity = new AtomicLong();
+        AtomicLong indexCount = new AtomicLong();
+        TradePipeline tradePipeline = new TradePipeline(64,
+                (event, sequence, endOfBatch) -> {
+                    if (sequence != headNext[0]++) outOfOrder.incrementAndGet();
+                    if (endOfBatch) batches.incrementAndGet();
+                },
+                (event, sequence, endOfBatch) -> windowQuantity.addAndGet(event.getTrade().getQuantity()),
+                (event, sequence, endOfBatch) -> indexCount.incrementAndGet());
+
+        ExecutorService executor = Executors.newFixedThreadPool(PUBLISHERS);
+        List<Future<?>> publishers = new ArrayList<>();
+        for (int publisher = 0; publisher < PUBLISHERS; publisher++) {
+            publishers.add(executor.submit(() -> {
+                for (int i = 0; i < TRADES_PER_PUBLISHER; i++) {
+                    tradePipeline.publish(newTrade(i % 10 + 1), 0);
+                }
+            }));
+        }
+        for (Future<?> publisher : publishers) {
+            publisher.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        tradePipeline.close();
+
+        long total = (long) PUBLISHERS * TRADES_PER_PUBLISHER;
+        assertEquals(total - 1, tradePipeline.getPublishedSequence());
+        assertEquals(total - 1, tradePipeline.getConsumedSequence());
+        assertEquals(0, outOfOrder.get());
+        assertEquals(total, indexCount.get());
+        assertEquals(total * 55 / 10, windowQuantity.get());
+        assertTrue(batches.get() <= total);
+    }
+
+    @Test
+    public void rejectsEventsOnceClosed() {
+        TradePipeline tradePipeline = new TradePipeline(16, (event, sequence, endOfBatch) -> {
+        });
+        tradePipeline.close();
+        assertThrows(IllegalStateException.class, () -> tradePipeline.publish(newTrade(1), 0));
+    }
+}
@@ -0,0 +1,102 @@
+package com.sssm.repository;
+
+import com.sssm.clock.ManualTradeClock;
+import com.sssm.data.TradeData;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {TradeRepository.class, TradeData.class, TradeRepositoryTest.ClockConfig.class})
+@TestPropertySource(properties = {"minutes.last.trades=15", "trade.history.minutes=15", "trade.bars.history=100",
+        "trade.leaderboard.expiry.ms=1000"})
+public class TradeRepositoryTest {
+
+    private static final String[] SYMBOLS = {"TEA", "POP", "ALE", "GIN"};
+    private static final int WRITERS = 8;
+    private static final int TRADES_PER_WRITER = 20_000;
+    private static final ManualTradeClock CLOCK = new ManualTradeClock(LocalDateTime.of(2022, 2, 1, 10, 0));
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    static class ClockConfig {
+
+        @Bean
+        public ManualTradeClock tradeClock() {
+            return CLOCK;
+        }
+    }
+
+    private static Trade newTrade(String symbol, double price) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(price);
+        trade.setQuantity(1);
+        trade.setTradeTimestampNanos(CLOCK.epochNanos());
+        return trade;
+    }
+
+    @Test
+    public void concurrentSavesKeepEveryTrade() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            int offset = writer;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRADES_PER_WRITER; i++) {
+                    String symbol = SYMBOLS[(offset + i) % SYMBOLS.length];
+                    tradeRepository.save(symbol, newTrade(symbol, i % 2 == 0 ? 50.0 : 200.0));
+                }
+                return null;
+            }));
+        }
+        Future<Integer> reader = executor.submit(() -> {
+            start.await();
+            int reads = 0;
+            while (!writers.stream().allMatch(Future::isDone)) {
+                for (String symbol : SYMBOLS) {
+                    if (tradeRepository.getWindow(symbol) != null) {
+                        double vwsp = tradeRepository.getWindow(symbol).getVolumeWeightedStockPrice(CLOCK.epochNanos());
+                        assertTrue(vwsp == 0.0 || vwsp >= 50.0 - 1e-9 && vwsp <= 200.0 + 1e-9, "VWSP out of range: " + vwsp);
+                    }
+                    reads++;
+                }
+            }
+            return reads;
+        });
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+        executor.shutdown();
+
+        int held = 0;
+        for (String symbol : SYMBOLS) {
+            held += tradeRepository.getWindow(symbol).getSize(CLOCK.epochNanos());
+        }
+        assertEquals(WRITERS * TRADES_PER_WRITER, held);
+        assertEquals(100.0, tradeRepository.getAllShareIndex().getValue(), 1e-9);
+    }
+}
@@ -1,7 +1,11 @@
 package com.sssm.service;
 
+import com.sssm.data.StockTable;
+import com.sssm.data.SymbolTable;
 import com.sssm.domain.Stock;
+import com.sssm.domain.StockPrices;
 import com.sssm.domain.StockType;
+import com.sssm.domain.StockValuation;
 import com.sssm.exception.InvalidDataException;
 import com.sssm.exception.NoDataException;
 import com.sssm.repository.StockRepository;
@@ -13,6 +17,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(SpringExtension.class)
@@ -35,10 +43,14 @@ public class StockServiceTest {
         return stock;
     }
 
+    private void givenStocks(Stock... stocks) {
+        Mockito.when(stockRepository.getStockTable()).thenReturn(new StockTable(new SymbolTable(), Arrays.asList(stocks)));
+    }
+
     @Test
     public void calculateCommonDividendYield() {
         String stock = "TEA";
-        Mockito.when(stockRepository.get(stock)).thenReturn(newStock(stock, StockType.COMMON));
+        givenStocks(newStock(stock, StockType.COMMON));
         double dividendYield = stockService.calculateDividendYield(stock, 10.0);
         assertEquals(0.8, dividendYield);
     }
@@ -46,7 +58,7 @@ public class StockServiceTest {
     @Test
     public void calculatePreferredDividendYield() {
         String stock = "GIN";
-        Mockito.when(stockRepository.get(stock)).thenReturn(newStock(stock, StockType.PREFERRED));
+        givenStocks(newStock(stock, StockType.PREFERRED));
         double dividendYield = stockService.calculateDividendYield(stock, 5.0);
         assertEquals(40.0, dividendYield);
     }
@@ -54,7 +66,7 @@ public class StockServiceTest {
     @Test
     public void calculatePERatio() {
         String stock = "TEA";
-        Mockito.when(stockRepository.get(stock)).thenReturn(newStock(stock, StockType.COMMON));
+        givenStocks(newStock(stock, StockType.COMMON));
         double peRatio = stockService.calculatePERatio(stock, 5.0);
         assertEquals(3.125, peRatio);
     }
@@ -94,4 +106,40 @@ public class StockServiceTest {
         String actualMessage = exception.getMessage();
         assertTrue(actualMessage.contains(errorMessage));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void calculateValuations() {
+        givenStocks(newStock("TEA", StockType.COMMON), newStock("GIN", StockType.PREFERRED));
+        List<StockValuation> valuations = stockService.calculateValuations(Arrays.asList(
+                new StockPrices("TEA", 10.0, 5.0), new StockPrices("GIN", 5.0)));
+        assertEquals(2, valuations.size());
+        assertEquals("TEA", valuations.get(0).getSymbol());
+        assertArrayEquals(new double[]{0.8, 1.6}, valuations.get(0).getDividendYields());
+        assertArrayEquals(new double[]{stockService.calculatePERatio("TEA", 10.0), 3.125}, valuations.get(0).getPeRatios());
+        assertArrayEquals(new double[]{40.0}, valuations.get(1).getDividendYields());
+        assertArrayEquals(new double[]{0.125}, valuations.get(1).getPeRatios());
+    }
+
+    @Test
+    public void calculateValuationsInvalidPrice() {
+        givenStocks(newStock("TEA", StockType.COMMON));
+        Exception exception = assertThrows(InvalidDataException.class, () ->
+                stockService.calculateValuations(Collections.singletonList(new StockPrices("TEA", 10.0, 0.0))));
+        assertEquals("Please enter a valid price for the calculation.", exception.getMessage());
+    }
+
+    @Test
+    public void calculateValuationsNullStock() {
+        givenStocks(newStock("TEA", StockType.COMMON));
+        Exception exception = assertThrows(InvalidDataException.class, () ->
+                stockService.calculateValuations(Arrays.asList(new StockPrices("TEA", 10.0), null)));
+        assertEquals("Please provide the stock and prices to calculate.", exception.getMessage());
+    }
+
+    @Test
+    public void calculateValuationsNoStock() {
+        givenStocks(newStock("TEA", StockType.COMMON));
+        assertThrows(NoDataException.class, () -> stockService.calculateValuations(Arrays.asList(
+                new StockPrices("TEA", 10.0), new StockPrices("BEV", 10.0))));
+    }
+}
@@ -1,22 +1,34 @@
 package com.sssm.service;
 
+import com.sssm.clock.ManualTradeClock;
+import com.sssm.data.AllShareIndex;
+import com.sssm.data.TradeBars;
+import com.sssm.data.TradeWindow;
+import com.sssm.domain.Bar;
 import com.sssm.domain.Trade;
+import com.sssm.domain.TradeResult;
+import com.sssm.domain.TradeStatus;
 import com.sssm.domain.TradeType;
 import com.sssm.exception.InvalidDataException;
 import com.sssm.exception.NoDataException;
+import com.sssm.metrics.TradeMetrics;
 import com.sssm.repository.TradeRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,8 +36,12 @@ import static org.mockito.ArgumentMatchers.anyString;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(TradeService.class)
+@Import(TradeServiceTest.ClockConfig.class)
 public class TradeServiceTest {
 
+    private static final LocalDateTime START = LocalDateTime.of(2022, 2, 1, 10, 0);
+    private static final ManualTradeClock CLOCK = new ManualTradeClock(START);
+
     @Autowired
     private TradeService tradeService;
 
@@ -35,18 +51,46 @@ public class TradeServiceTest {
     @MockBean
     private StockService stockService;
 
+    @MockBean
+    private TradeMetrics tradeMetrics;
+
+    static class ClockConfig {
+
+        @Bean
+        public ManualTradeClock tradeClock() {
+            return CLOCK;
+        }
+    }
+
+    @BeforeEach
+    public void resetClock() {
+        CLOCK.set(START);
+    }
+
     private static Trade newTrade(String symbol, int quantity, double price, TradeType tradeType) {
         Trade trade = new Trade();
         trade.setSymbol(symbol);
         trade.setType(tradeType);
         trade.setTradePrice(price);
         trade.setQuantity(quantity);
-        trade.setTradeTimestamp(LocalDateTime.now());
+        trade.setTradeTimestamp(CLOCK.now());
         return trade;
     }
 
-    private static Collection<List<Trade>> getTrades(List<Trade> trades) {
-        return Collections.singleton(trades);
+    private static AllShareIndex getAllShareIndex(double... prices) {
+        AllShareIndex allShareIndex = new AllShareIndex();
+        for (int i = 0; i < prices.length; i++) {
+            allShareIndex.add(i, prices[i]);
+        }
+        return allShareIndex;
+    }
+
+    private static TradeWindow getTradeWindow(Trade... trades) {
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        for (Trade trade : trades) {
+            tradeWindow.add(trade);
+        }
+        return tradeWindow;
     }
 
     @Test
@@ -57,6 +101,7 @@ public class TradeServiceTest {
         Trade recordedTrade = tradeService.recordTrade(trade);
         assertNotNull(recordedTrade);
         assertEquals(stock, recordedTrade.getSymbol());
+        Mockito.verify(tradeMetrics).tradesRecorded(1);
     }
 
     @Test
@@ -70,6 +115,7 @@ public class TradeServiceTest {
         });
         String actualMessage = exception.getMessage();
         assertTrue(actualMessage.contains(errorMessage));
+        Mockito.verify(tradeMetrics).tradeRejected("quantity");
     }
 
     @Test
@@ -85,6 +131,16 @@ public class TradeServiceTest {
         assertTrue(actualMessage.contains(errorMessage));
     }
 
+    @Test
+    public void recordTradeNonFinitePrice() {
+        for (double price : new double[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            Trade trade = newTrade("TEA", 20, price, TradeType.BUY);
+            Exception exception = assertThrows(InvalidDataException.class, () -> tradeService.recordTrade(trade));
+            assertEquals("Please enter a valid trade price to record the trade.", exception.getMessage());
+        }
+        Mockito.verify(tradeRepository, Mockito.never()).save(anyString(), any(Trade.class));
+    }
+
     @Test
     public void recordTradeInvalidTradeType() {
         String stock = "TEA";
@@ -98,20 +154,95 @@ public class TradeServiceTest {
         assertTrue(actualMessage.contains(errorMessage));
     }
 
+    @Test
+    public void recordTrades() {
+        Trade trade = newTrade("TEA", 2, 52.2, TradeType.BUY);
+        Trade trade1 = newTrade("TEA", 0, 42.2, TradeType.SELL);
+        Trade trade2 = newTrade("LEA", 3, 42.2, TradeType.SELL);
+        Trade trade3 = newTrade("TEA", 5, 40.0, TradeType.SELL);
+        Mockito.when(stockService.getStock("LEA")).thenThrow(new NoDataException("Stock with symbol: LEA not found."));
+        List<TradeResult> tradeResults = tradeService.recordTrades(List.of(trade, trade1, trade2, trade3));
+        assertEquals(4, tradeResults.size());
+        assertEquals(TradeStatus.RECORDED, tradeResults.get(0).getStatus());
+        assertEquals(TradeStatus.INVALID, tradeResults.get(1).getStatus());
+        assertEquals(TradeStatus.NOT_FOUND, tradeResults.get(2).getStatus());
+        assertEquals(TradeStatus.RECORDED, tradeResults.get(3).getStatus());
+        Mockito.verify(tradeRepository).saveAll("TEA", List.of(trade, trade3));
+        Mockito.verify(tradeRepository, Mockito.never()).saveAll(Mockito.eq("LEA"), Mockito.anyList());
+        Mockito.verify(stockService, Mockito.times(1)).getStock("TEA");
+        Mockito.verify(tradeMetrics).tradesRecorded(2);
+        Mockito.verify(tradeMetrics).tradeRejected("unknown_stock");
+    }
+
+    @Test
+    public void recordTradesWithNullTrade() {
+        Trade trade = newTrade("TEA", 2, 52.2, TradeType.BUY);
+        List<TradeResult> tradeResults = tradeService.recordTrades(Arrays.asList(null, trade));
+        assertEquals(2, tradeResults.size());
+        assertEquals(TradeStatus.INVALID, tradeResults.get(0).getStatus());
+        assertEquals("Please provide a trade to record.", tradeResults.get(0).getMessage());
+        assertNull(tradeResults.get(0).getTrade());
+        assertEquals(TradeStatus.RECORDED, tradeResults.get(1).getStatus());
+        Mockito.verify(tradeRepository).saveAll("TEA", List.of(trade));
+        Mockito.verify(tradeMetrics).tradeRejected("trade");
+    }
+
+    @Test
+    public void recordTradesEmptyBatch() {
+        String errorMessage = "Please provide at least one trade to record.";
+        Exception exception = assertThrows(InvalidDataException.class, () -> tradeService.recordTrades(List.of()));
+        assertTrue(exception.getMessage().contains(errorMessage));
+    }
+
     @Test
     public void calculateVolumeWeightedStockPrice() {
         String stock = "TEA";
         Trade trade = newTrade(stock, 2, 52.2, TradeType.BUY);
         Trade trade1 = newTrade(stock, 3, 42.2, TradeType.BUY);
-        Mockito.when(tradeRepository.get(anyString())).thenReturn(List.of(trade, trade1));
+        Mockito.when(tradeRepository.getWindow(anyString())).thenReturn(getTradeWindow(trade, trade1));
         double volumeWeightedStockPrice = tradeService.calculateVolumeWeightedStockPrice(stock);
         assertEquals(46.2, volumeWeightedStockPrice);
     }
 
+    @Test
+    public void calculateVolumeWeightedStockPriceIgnoresExpiredTrades() {
+        String stock = "TEA";
+        Trade trade = newTrade(stock, 2, 52.2, TradeType.BUY);
+        Trade trade1 = newTrade(stock, 3, 42.2, TradeType.BUY);
+        trade.setTradeTimestamp(CLOCK.now().minusMinutes(20));
+        Mockito.when(tradeRepository.getWindow(anyString())).thenReturn(getTradeWindow(trade, trade1));
+        double volumeWeightedStockPrice = tradeService.calculateVolumeWeightedStockPrice(stock);
+        assertEquals(42.2, volumeWeightedStockPrice);
+    }
+
+    @Test
+    public void calculateVolumeWeightedStockPriceAsTradesExpire() {
+        String stock = "TEA";
+        Trade trade = newTrade(stock, 2, 52.2, TradeType.BUY);
+        CLOCK.advance(Duration.ofMinutes(10));
+        Trade trade1 = newTrade(stock, 3, 42.2, TradeType.BUY);
+        Mockito.when(tradeRepository.getWindow(anyString())).thenReturn(getTradeWindow(trade, trade1));
+        assertEquals(46.2, tradeService.calculateVolumeWeightedStockPrice(stock));
+        CLOCK.advance(Duration.ofMinutes(5).minusNanos(1));
+        assertEquals(46.2, tradeService.calculateVolumeWeightedStockPrice(stock));
+        CLOCK.advance(Duration.ofNanos(1));
+        assertEquals(42.2, tradeService.calculateVolumeWeightedStockPrice(stock), 1e-9);
+    }
+
+    @Test
+    public void calculateVolumeWeightedStockPrices() {
+        Trade trade = newTrade("TEA", 2, 52.2, TradeType.BUY);
+        Trade trade1 = newTrade("TEA", 3, 42.2, TradeType.BUY);
+        Mockito.when(tradeRepository.getWindow("TEA")).thenReturn(getTradeWindow(trade, trade1));
+        Map<String, Double> volumeWeightedStockPrices = tradeService.calculateVolumeWeightedStockPrices(List.of("TEA", "GIN"));
+        assertEquals(Map.of("TEA", 46.2, "GIN", 0.0), volumeWeightedStockPrices);
+        assertThrows(InvalidDataException.class, () -> tradeService.calculateVolumeWeightedStockPrices(List.of()));
+    }
+
     @Test
     public void calculateVolumeWeightedStockPriceZeroIfNoTradeFound() {
         String stock = "TEA";
-        Mockito.when(tradeRepository.get(anyString())).thenReturn(Collections.emptyList());
+        Mockito.when(tradeRepository.getWindow(anyString())).thenReturn(getTradeWindow());
         double volumeWeightedStockPrice = tradeService.calculateVolumeWeightedStockPrice(stock);
         assertEquals(0.0, volumeWeightedStockPrice);
     }
@@ -121,7 +252,7 @@ public class TradeServiceTest {
         String stock = "";
         String errorMessage = "Stock symbol can not be empty.";
         Exception exception = assertThrows(InvalidDataException.class, () -> {
-            Mockito.when(tradeRepository.get(stock)).thenThrow(new InvalidDataException(errorMessage));
+            Mockito.when(tradeRepository.getWindow(stock)).thenThrow(new InvalidDataException(errorMessage));
             tradeService.calculateVolumeWeightedStockPrice(stock);
         });
         String actualMessage = exception.getMessage();
@@ -133,7 +264,7 @@ public class TradeServiceTest {
         String stock = "LEA";
         String errorMessage = "Stock with symbol: " + stock + " not found.";
         Exception exception = assertThrows(NoDataException.class, () -> {
-            Mockito.when(tradeRepository.get(stock)).thenThrow(new NoDataException(errorMessage));
+            Mockito.when(tradeRepository.getWindow(stock)).thenThrow(new NoDataException(errorMessage));
             tradeService.calculateVolumeWeightedStockPrice(stock);
         });
         String actualMessage = exception.getMessage();
@@ -142,17 +273,77 @@ public class TradeServiceTest {
 
     @Test
     public void calculateGBCEAllShareIndex() {
-        Trade trade = newTrade("TEA", 2, 52.2, TradeType.BUY);
-        Trade trade1 = newTrade("GIN", 3, 42.2, TradeType.BUY);
-        Mockito.when(tradeRepository.getAllTrades()).thenReturn(getTrades(List.of(trade, trade1)));
-        double volumeWeightedStockPrice = tradeService.calculateGBCEAllShareIndex();
-        assertEquals(2202.84, volumeWeightedStockPrice);
+        Mockito.when(tradeRepository.getAllShareIndex()).thenReturn(getAllShareIndex(52.2, 42.2));
+        double gbceAllShareIndex = tradeService.calculateGBCEAllShareIndex();
+        assertEquals(Math.sqrt(52.2 * 42.2), gbceAllShareIndex, 1e-9);
+    }
+
+    @Test
+    public void calculateGBCEAllShareIndexFromCacheUntilTradeAdded() {
+        AllShareIndex allShareIndex = getAllShareIndex(50.0, 200.0);
+        Mockito.when(tradeRepository.getAllShareIndex()).thenReturn(allShareIndex);
+        assertEquals(100.0, tradeService.calculateGBCEAllShareIndex(), 1e-9);
+        assertEquals(100.0, tradeService.calculateGBCEAllShareIndex(), 1e-9);
+        allShareIndex.add(7, 100.0);
+        assertEquals(100.0, tradeService.calculateGBCEAllShareIndex(), 1e-9);
+        allShareIndex.add(3, 1600.0);
+        assertEquals(200.0, tradeService.calculateGBCEAllShareIndex(), 1e-9);
+        Mockito.verify(tradeMetrics, Mockito.times(1)).gbceCacheRead(true);
+        Mockito.verify(tradeMetrics, Mockito.times(3)).gbceCacheRead(false);
+    }
+
+    @Test
+    public void calculateGBCEAllShareIndexForManyTrades() {
+        AllShareIndex allShareIndex = new AllShareIndex();
+        for (int i = 0; i < 1_000_000; i++) {
+            allShareIndex.add(i % 5, i % 2 == 0 ? 50.0 : 200.0);
+        }
+        Mockito.when(tradeRepository.getAllShareIndex()).thenReturn(allShareIndex);
+        double gbceAllShareIndex = tradeService.calculateGBCEAllShareIndex();
+        assertEquals(100.0, gbceAllShareIndex, 1e-9);
     }
 
     @Test
     public void calculateGBCEAllShareIndexZeroIfNoTradeFound() {
-        Mockito.when(tradeRepository.getAllTrades()).thenReturn(Collections.emptyList());
-        double volumeWeightedStockPrice = tradeService.calculateGBCEAllShareIndex();
-        assertEquals(0.0, volumeWeightedStockPrice);
+        Mockito.when(tradeRepository.getAllShareIndex()).thenReturn(getAllShareIndex());
+        double gbceAllShareIndex = tradeService.calculateGBCEAllShareIndex();
+        assertEquals(0.0, gbceAllShareIndex);
+    }
+
+    @Test
+    public void getBars() {
+        LocalDateTime timestamp = LocalDateTime.of(2022, 2, 1, 10, 0);
+        Trade trade = newTrade("TEA", 10, 52.2, TradeType.BUY);
+        Trade trade1 = newTrade("TEA", 5, 42.2, TradeType.SELL);
+        trade.setTradeTimestamp(timestamp);
+        trade1.setTradeTimestamp(timestamp.plusMinutes(1));
+        TradeBars tradeBars = new TradeBars(10);
+        tradeBars.add(trade);
+        tradeBars.add(trade1);
+        Mockito.when(tradeRepository.getBars("TEA")).thenReturn(tradeBars);
+        List<Bar> bars = tradeService.getBars("TEA", "5m", 10);
+        assertEquals(1, bars.size());
+        assertEquals(52.2, bars.get(0).getHigh());
+        assertEquals(42.2, bars.get(0).getLow());
+        assertEquals(15, bars.get(0).getVolume());
+    }
+
+    @Test
+    public void getBarsInvalidResolution() {
+        Exception exception = assertThrows(InvalidDataException.class, () -> tradeService.getBars("TEA", "2m", 10));
+        assertEquals("Bar resolution can only be 1s, 1m or 5m.", exception.getMessage());
+    }
+
+    @Test
+    public void getTradesInvalidRange() {
+        LocalDateTime now = LocalDateTime.now();
+        Exception exception = assertThrows(InvalidDataException.class, () -> tradeService.getTrades("TEA", now, now.minusMinutes(1), 0, 10));
+        assertEquals("The start of the time range can not be after its end.", exception.getMessage());
+    }
+
+    @Test
+    public void getTopSymbolsInvalidMetric() {
+        Exception exception = assertThrows(InvalidDataException.class, () -> tradeService.getTopSymbols("price", 10));
+        assertEquals("Leaderboard metric can only be volume, notional or count.", exception.getMessage());
     }
-}
\ No newline at end of file
+}
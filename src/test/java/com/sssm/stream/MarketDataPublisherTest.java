@@ -0,0 +1,157 @@
+package com.sssm.stream;
+
+import com.sssm.clock.ManualTradeClock;
+import com.sssm.data.AllShareIndex;
+import com.sssm.data.TradeWindow;
+import com.sssm.domain.MarketDataUpdate;
+import com.sssm.domain.Trade;
+import com.sssm.domain.TradeType;
+import com.sssm.repository.TradeRepository;
+import com.sssm.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {MarketDataPublisher.class, MarketDataPublisherTest.ClockConfig.class})
+@TestPropertySource(properties = {"trade.stream.max.updates.per.second=1", "trade.stream.timeout.ms=0",
+        "trade.stream.sender.threads=2"})
+public class MarketDataPublisherTest {
+
+    private static final ManualTradeClock CLOCK = new ManualTradeClock(LocalDateTime.of(2022, 2, 1, 10, 0));
+
+    @Autowired
+    private MarketDataPublisher marketDataPublisher;
+
+    @MockBean
+    private TradeRepository tradeRepository;
+
+    @MockBean
+    private StockService stockService;
+
+    static class ClockConfig {
+
+        @Bean
+        public ManualTradeClock tradeClock() {
+            return CLOCK;
+        }
+    }
+
+    private static Trade newTrade(String symbol, double price, int quantity) {
+        Trade trade = new Trade();
+        trade.setSymbol(symbol);
+        trade.setType(TradeType.BUY);
+        trade.setTradePrice(price);
+        trade.setQuantity(quantity);
+        trade.setTradeTimestampNanos(CLOCK.epochNanos());
+        return trade;
+    }
+
+    @Test
+    public void publishesChangedValuesOncePerTick() throws InterruptedException {
+        TradeWindow tradeWindow = new TradeWindow("TEA", Duration.ofMinutes(15));
+        AllShareIndex allShareIndex = new AllShareIndex();
+        Mockito.when(tradeRepository.getWindow("TEA")).thenReturn(tradeWindow);
+        Mockito.when(tradeRepository.getAllShareIndex()).thenReturn(allShareIndex);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        marketDataPublisher.subscribe(first, List.of("TEA"), true);
+        marketDataPublisher.subscribe(second, List.of("TEA"), false);
+        assertEquals(new MarketDataUpdate("TEA", 0.0), first.next());
+        assertEquals(new MarketDataUpdate(null, 0.0), first.next());
+        assertEquals(new MarketDataUpdate("TEA", 0.0), second.next());
+
+        marketDataPublisher.publishUpdates();
+        first.assertNoUpdate();
+        second.assertNoUpdate();
+
+        tradeWindow.addAll(List.of(newTrade("TEA", 10.0, 1), newTrade("TEA", 40.0, 3)));
+        allShareIndex.add(0, 10.0);
+        marketDataPublisher.publishUpdates();
+        MarketDataUpdate update = first.next();
+        assertEquals(new MarketDataUpdate("TEA", 32.5), update);
+        MarketDataUpdate gbceUpdate = first.next();
+        assertNull(gbceUpdate.getSymbol());
+        assertEquals(10.0, gbceUpdate.getValue(), 1e-9);
+        assertSame(update, second.next());
+        marketDataPublisher.publishUpdates();
+        first.assertNoUpdate();
+        second.assertNoUpdate();
+
+        CLOCK.advance(Duration.ofMinutes(16));
+        marketDataPublisher.publishUpdates();
+        assertEquals(new MarketDataUpdate("TEA", 0.0), first.next());
+        assertEquals(new MarketDataUpdate("TEA", 0.0), second.next());
+        first.assertNoUpdate();
+        second.assertNoUpdate();
+    }
+
+    @Test
+    public void slowSubscriberDoesNotHoldUpOthers() throws InterruptedException {
+        TradeWindow tradeWindow = new TradeWindow("POP", Duration.ofMinutes(15));
+        Mockito.when(tradeRepository.getWindow("POP")).thenReturn(tradeWindow);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter();
+        marketDataPublisher.subscribe(slow, List.of("POP"), false);
+        marketDataPublisher.subscribe(fast, List.of("POP"), false);
+        assertEquals(new MarketDataUpdate("POP", 0.0), fast.next());
+
+        tradeWindow.add(newTrade("POP", 20.0, 2));
+        marketDataPublisher.publishUpdates();
+        assertEquals(new MarketDataUpdate("POP", 20.0), fast.next());
+        release.countDown();
+        assertEquals(new MarketDataUpdate("POP", 0.0), slow.next());
+        assertEquals(new MarketDataUpdate("POP", 20.0), slow.next());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<MarketDataUpdate> updates = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof MarketDataUpdate) updates.add((MarketDataUpdate) data.getData());
+            }
+        }
+
+        private MarketDataUpdate next() throws InterruptedException {
+            MarketDataUpdate update = updates.poll(5, TimeUnit.SECONDS);
+            assertNotNull(update, "No market data update was sent.");
+            return update;
+        }
+
+        private void assertNoUpdate() throws InterruptedException {
+            assertNull(updates.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+}